@@ -39,6 +39,7 @@ public class Bootstrap implements CommandLineRunner {
     private static List<Book> books;
     private static List<Customer> customers;
     private static List<Order> orders;
+    private static final Map<UUID, Integer> orderedCopies = new HashMap<>();
 
     private final PublisherRepository publisherRepository;
     private final AuthorRepository authorRepository;
@@ -64,7 +65,7 @@ public class Bootstrap implements CommandLineRunner {
             customers.forEach(customerRepository::saveCustomer);
 
             populateOrders();
-            orders.forEach(order -> orderRepository.save(order, new HashSet<>(books)));
+            orders.forEach(orderRepository::save);
 
             log.info("Bootstrap is completed basic values in database.");
         }
@@ -168,7 +169,7 @@ public class Bootstrap implements CommandLineRunner {
             int randomCustomer = faker.number().numberBetween(0, customers.size());
 
             Integer totalNumberOfBooks = books.stream()
-                    .map(b -> b.getQuantityOnHand().quantityOnHand())
+                    .map(Bootstrap::copiesLeft)
                     .reduce(Integer::sum)
                     .get();
 
@@ -182,16 +183,11 @@ public class Bootstrap implements CommandLineRunner {
 
             var booksForOrder = getBooksForOrder(countOfBooksPerOrder);
 
-            int minPaidAmount = booksForOrder.entrySet()
-                    .stream()
-                    .map(pair -> pair.getKey().getPrice().price() * pair.getValue())
-                    .reduce(Double::sum)
-                    .get()
-                    .intValue() + 1;
+            int minPaidAmount = (int) (Order.totalPriceOf(booksForOrder).cents() / 100) + 1;
 
             return Order.create(
                     UUID.randomUUID(),
-                    new PaidAmount((double) ThreadLocalRandom.current().nextInt(minPaidAmount, 5000)),
+                    PaidAmount.of(ThreadLocalRandom.current().nextInt(minPaidAmount, 5000)),
                     randomCreditCard(),
                     LocalDateTime.now(),
                     customers.get(randomCustomer),
@@ -200,43 +196,31 @@ public class Bootstrap implements CommandLineRunner {
         };
     }
 
+    /**
+     * Orders take their copies from stock when saved, so the generated orders never exceed copies left in total.
+     */
     private static Map<Book, Integer> getBooksForOrder(int countOfBooks) {
-        removeBooksWithZeroQuantity();
-
-        List<Book> bookList = new ArrayList<>(books);
+        List<Book> bookList = books.stream()
+                .filter(book -> copiesLeft(book) > 0)
+                .collect(Collectors.toCollection(ArrayList::new));
         Map<Book, Integer> bookMap = new HashMap<>();
 
-        for (int i = 0; i < countOfBooks; i++) {
-
-            int randomBook;
-
-            if (bookList.size() == 1) {
-                randomBook = 0;
-            } else {
-                randomBook = ThreadLocalRandom.current().nextInt(0, bookList.size() - 1);
-            }
-
-            Book selectedBook = bookList.get(randomBook);
+        for (int i = 0; i < countOfBooks && !bookList.isEmpty(); i++) {
+            Book selectedBook = bookList.get(ThreadLocalRandom.current().nextInt(0, bookList.size()));
 
-            Integer bookQuantity = selectedBook.getQuantityOnHand().quantityOnHand();
-
-            if (bookQuantity == 1) {
-                bookList.remove(selectedBook);
-            }
+            bookMap.merge(selectedBook, 1, Integer::sum);
+            orderedCopies.merge(selectedBook.getId(), 1, Integer::sum);
 
-            if (bookMap.containsKey(selectedBook)
-                    && Objects.equals(bookMap.get(selectedBook), bookQuantity - 1)) {
+            if (copiesLeft(selectedBook) == 0) {
                 bookList.remove(selectedBook);
             }
-
-            bookMap.merge(selectedBook, 1, Integer::sum);
         }
 
         return bookMap;
     }
 
-    private static void removeBooksWithZeroQuantity() {
-        books.removeIf(book -> book.getQuantityOnHand().quantityOnHand() == 0);
+    private static int copiesLeft(Book book) {
+        return book.getQuantityOnHand().quantityOnHand() - orderedCopies.getOrDefault(book.getId(), 0);
     }
 
     public static Address randomAddress() {
@@ -475,7 +459,7 @@ public class Bootstrap implements CommandLineRunner {
     }
 
     public static Price randomPrice() {
-        return new Price(faker.number().randomDouble(2, 1, 100));
+        return Price.of(faker.number().randomDouble(2, 1, 100));
     }
 
     public static QuantityOnHand randomQuantityOnHand() {
@@ -1,27 +1,36 @@
 package core.project.library.application.controllers;
 
+import core.project.library.application.model.BookBatchModel;
 import core.project.library.application.model.BookDTO;
 import core.project.library.application.model.BookModel;
+import core.project.library.application.model.BookPageModel;
+import core.project.library.application.model.BookSummaryModel;
+import core.project.library.application.model.TopSellerModel;
 import core.project.library.application.service.BookService;
 import core.project.library.domain.entities.Author;
 import core.project.library.domain.entities.Book;
 import core.project.library.domain.entities.Publisher;
 import core.project.library.domain.events.Events;
+import core.project.library.domain.value_objects.Category;
 import core.project.library.domain.value_objects.ISBN;
 import core.project.library.infrastructure.exceptions.NotFoundException;
 import core.project.library.infrastructure.mappers.BookMapper;
+import core.project.library.infrastructure.pagination.PageCursor;
+import core.project.library.infrastructure.pagination.SearchCursor;
 import core.project.library.infrastructure.repository.AuthorRepository;
 import core.project.library.infrastructure.repository.BookRepository;
 import core.project.library.infrastructure.repository.PublisherRepository;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.LocalDate;
 import java.util.*;
 
 @Slf4j
@@ -30,6 +39,14 @@ import java.util.*;
 @RequestMapping("/library/book")
 public class BookController {
 
+    private static final int MAX_BOOKS_PER_BATCH = 100;
+
+    private static final int DEFAULT_COUNT_OF_TOP_SELLERS = 20;
+
+    private static final int MAX_COUNT_OF_TOP_SELLERS = 100;
+
+    private static final int DEFAULT_DAYS_OF_TOP_SELLERS = 7;
+
     private final BookMapper bookMapper;
 
     private final BookService bookService;
@@ -69,6 +86,34 @@ public class BookController {
                 );
     }
 
+    @PostMapping("/findByIds")
+    final ResponseEntity<BookBatchModel> findByIds(@RequestBody List<UUID> bookIds) {
+        Objects.requireNonNull(bookIds);
+
+        var requestedIds = new LinkedHashSet<>(bookIds);
+        if (requestedIds.size() > MAX_BOOKS_PER_BATCH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    String.format("No more than %d books can be requested at once.", MAX_BOOKS_PER_BATCH));
+        }
+
+        Map<UUID, Book> foundBooks = bookService.findAllById(requestedIds);
+
+        List<Book> books = new ArrayList<>();
+        List<UUID> missingIds = new ArrayList<>();
+        for (UUID bookId : requestedIds) {
+            Book book = foundBooks.get(bookId);
+            if (book != null) {
+                books.add(book);
+            } else {
+                missingIds.add(bookId);
+            }
+        }
+
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(new BookBatchModel(bookMapper.listOfModel(books), missingIds));
+    }
+
     @GetMapping("/pageOfBook")
     final ResponseEntity<List<BookModel>> listOfBooks(@RequestParam Integer pageNumber,
                                                       @RequestParam Integer pageSize,
@@ -91,6 +136,123 @@ public class BookController {
                 .body(bookMapper.listOfModel(books));
     }
 
+    @GetMapping(value = "/pageOfBook", params = {"pageNumber", "view=summary"})
+    final ResponseEntity<List<BookSummaryModel>> listOfBookSummaries(@RequestParam Integer pageNumber,
+                                                                     @RequestParam Integer pageSize,
+                                                                     @RequestParam(required = false) String title,
+                                                                     @RequestParam(required = false) String category) {
+        Objects.requireNonNull(pageNumber);
+        Objects.requireNonNull(pageSize);
+
+        var bookSummaries = bookService.listOfBookSummaries(pageNumber, pageSize, title, category);
+
+        if (bookSummaries.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, """
+                    We were unable to compile a list of books based on your requests..
+                    Make sure the fields you indicate are correct.
+                    Otherwise, unfortunately we do not have such data.""");
+        }
+
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(bookMapper.listOfSummaryModel(bookSummaries));
+    }
+
+    /**
+     * Pages by cursor always hold complete books, the summary view is available with pageNumber only.
+     */
+    @GetMapping(value = "/pageOfBook", params = "!pageNumber")
+    final ResponseEntity<BookPageModel> listOfBooksByCursor(@RequestParam Integer pageSize,
+                                                            @RequestParam(required = false) String cursor,
+                                                            @RequestParam(required = false) String title,
+                                                            @RequestParam(required = false) String category,
+                                                            @RequestParam(required = false) String view) {
+        Objects.requireNonNull(pageSize);
+        if (view != null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "View of the page can be chosen only together with pageNumber.");
+        }
+
+        PageCursor pageCursor = cursor == null ? null : PageCursor.decode(cursor);
+        var books = bookService.listOfBooks(pageCursor, pageSize, title, category);
+
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(new BookPageModel(bookMapper.listOfModel(books), nextCursor(books, pageSize)));
+    }
+
+    @GetMapping("/search")
+    final ResponseEntity<BookPageModel> search(@RequestParam String query,
+                                               @RequestParam Integer pageSize,
+                                               @RequestParam(required = false) String cursor) {
+        Objects.requireNonNull(pageSize);
+        if (query == null || query.isBlank() || query.length() > 100) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Search query should not be blank or longer than 100 characters.");
+        }
+
+        SearchCursor searchCursor = cursor == null ? null : SearchCursor.decode(cursor);
+        var page = bookService.search(query, searchCursor, pageSize);
+
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(new BookPageModel(
+                        bookMapper.listOfModel(page.books()),
+                        page.nextCursor() == null ? null : page.nextCursor().encode()
+                ));
+    }
+
+    @GetMapping("/suggest")
+    final ResponseEntity<List<String>> suggestTitles(@RequestParam String prefix,
+                                                     @RequestParam(defaultValue = "10") Integer limit) {
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(bookService.suggestTitles(prefix, BookRepository.buildLimit(limit)));
+    }
+
+    @GetMapping("/categoryFacets")
+    final ResponseEntity<Map<Category, Integer>> categoryFacets() {
+        return ResponseEntity.status(HttpStatus.OK).body(bookService.categoryFacets());
+    }
+
+    @PostMapping("/categoryFacets/rebuild")
+    final ResponseEntity<Void> rebuildCategoryFacets() {
+        bookService.rebuildCategoryFacets();
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Reads only the daily sales rollup, by default the top sellers of the last seven days in all categories.
+     */
+    @GetMapping("/topSellers")
+    final ResponseEntity<List<TopSellerModel>> topSellers(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Category category,
+            @RequestParam(required = false) Integer limit) {
+        LocalDate toDate = to == null ? LocalDate.now() : to;
+        LocalDate fromDate = from == null ? toDate.minusDays(DEFAULT_DAYS_OF_TOP_SELLERS - 1) : from;
+        if (fromDate.isAfter(toDate)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Start of the period can`t be after its end.");
+        }
+
+        int countOfTopSellers = limit == null || limit < 1 || limit > MAX_COUNT_OF_TOP_SELLERS
+                ? DEFAULT_COUNT_OF_TOP_SELLERS
+                : limit;
+
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(bookMapper.listOfTopSellerModel(
+                        bookService.topSellers(fromDate, toDate, category, countOfTopSellers)
+                ));
+    }
+
+    @PostMapping("/topSellers/rebuild")
+    final ResponseEntity<Void> rebuildSalesRollup() {
+        bookService.rebuildSalesRollup();
+        return ResponseEntity.noContent().build();
+    }
+
     @PostMapping("/saveBook")
     final ResponseEntity<Void> saveBook(@RequestBody @Valid BookDTO bookDTO,
                                         @RequestParam UUID publisherId,
@@ -150,4 +312,13 @@ public class BookController {
         bookService.withdrawBookFromTheSale(bookId);
         return ResponseEntity.noContent().build();
     }
+
+    private static String nextCursor(List<Book> books, Integer pageSize) {
+        if (books.isEmpty() || books.size() < BookRepository.buildLimit(pageSize)) {
+            return null;
+        }
+
+        Book lastBook = books.getLast();
+        return new PageCursor(lastBook.getEvents().creation_date(), lastBook.getId()).encode();
+    }
 }
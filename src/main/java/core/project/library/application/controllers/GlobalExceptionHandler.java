@@ -33,6 +33,13 @@ public class GlobalExceptionHandler {
         return e.getMessage();
     }
 
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ExceptionHandler(InvalidCursorException.class)
+    public String handleInvalidCursorException(HttpServletRequest request, InvalidCursorException e) {
+        log.info("InvalidCursorException: {}. In the request: {}", e.getMessage(), request.toString());
+        return e.getMessage();
+    }
+
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     @ExceptionHandler(InvalidEmailException.class)
     public String handleInvalidEmailException(HttpServletRequest request, InvalidEmailException e) {
@@ -96,4 +103,25 @@ public class GlobalExceptionHandler {
         return e.getMessage();
     }
 
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ExceptionHandler(RemovedFromSaleException.class)
+    public String handleRemovedFromSaleException(HttpServletRequest request, RemovedFromSaleException e) {
+        log.info("RemovedFromSaleException: {}. In the request: {}", e.getMessage(), request.toString());
+        return e.getMessage();
+    }
+
+    @ResponseStatus(HttpStatus.CONFLICT)
+    @ExceptionHandler(StockHoldException.class)
+    public String handleStockHoldException(HttpServletRequest request, StockHoldException e) {
+        log.info("StockHoldException: {}. In the request: {}", e.getMessage(), request.toString());
+        return e.getMessage();
+    }
+
+    @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+    @ExceptionHandler(OrderIntakeOverloadedException.class)
+    public String handleOrderIntakeOverloadedException(HttpServletRequest request, OrderIntakeOverloadedException e) {
+        log.info("OrderIntakeOverloadedException: {}. In the request: {}", e.getMessage(), request.toString());
+        return e.getMessage();
+    }
+
 }
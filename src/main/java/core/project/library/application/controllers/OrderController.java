@@ -1,17 +1,29 @@
 package core.project.library.application.controllers;
 
 import core.project.library.application.model.InboundOrderDTO;
+import core.project.library.application.model.OrderHistoryModel;
 import core.project.library.application.model.OrderModel;
+import core.project.library.application.model.OrderPageModel;
+import core.project.library.application.model.OrderStatusModel;
+import core.project.library.application.model.OrderSummaryPageModel;
+import core.project.library.application.model.StockHoldDTO;
+import core.project.library.application.model.StockHoldModel;
+import core.project.library.application.service.BookService;
+import core.project.library.application.service.FlashSaleService;
+import core.project.library.application.service.IdempotencyService;
+import core.project.library.application.service.OrderIntakeService;
+import core.project.library.application.service.StockHoldService;
 import core.project.library.domain.entities.Book;
 import core.project.library.domain.entities.Customer;
 import core.project.library.domain.entities.Order;
+import core.project.library.infrastructure.exceptions.DuplicateIdempotencyKeyException;
 import core.project.library.infrastructure.exceptions.NotFoundException;
-import core.project.library.infrastructure.exceptions.QuantityOnHandException;
-import core.project.library.infrastructure.exceptions.RemovedFromSaleException;
 import core.project.library.infrastructure.mappers.OrderMapper;
+import core.project.library.infrastructure.pagination.PageCursor;
 import core.project.library.infrastructure.repository.BookRepository;
 import core.project.library.infrastructure.repository.CustomerRepository;
 import core.project.library.infrastructure.repository.OrderRepository;
+import core.project.library.infrastructure.repository.OrderRepository.OrderToSave;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -21,17 +33,41 @@ import org.springframework.web.server.ResponseStatusException;
 
 import java.net.URI;
 import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/library/order")
 @RequiredArgsConstructor
 public class OrderController {
+    /**Customer and books of a new order are looked up concurrently, the customer on a virtual thread.*/
+    private static final Executor LOOKUP_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
+    private static final int MAX_COUNTED_ORDERS = 1000;
+
     private final OrderMapper mapper;
 
+    private final BookService bookService;
+
+    private final FlashSaleService flashSaleService;
+
+    private final IdempotencyService idempotencyService;
+
+    private final OrderIntakeService orderIntakeService;
+
+    private final StockHoldService stockHoldService;
+
     private final BookRepository bookRepository;
 
     private final OrderRepository orderRepository;
@@ -58,27 +94,108 @@ public class OrderController {
         return ResponseEntity.ok(mapper.listOfModel(orders));
     }
 
+    @GetMapping("/history/{customerId}")
+    final ResponseEntity<List<OrderHistoryModel>> history(@PathVariable("customerId") UUID customerId) {
+        var history = orderRepository.findHistoryByCustomerId(customerId);
+
+        return ResponseEntity.ok(mapper.listOfHistoryModel(history));
+    }
+
+    @GetMapping("/summaries/{customerId}")
+    final ResponseEntity<OrderSummaryPageModel> summaries(@PathVariable("customerId") UUID customerId,
+                                                          @RequestParam Integer pageSize,
+                                                          @RequestParam(required = false) String cursor) {
+        PageCursor pageCursor = cursor == null ? null : PageCursor.decode(cursor);
+        var summaries = orderRepository.listOfOrderSummaries(customerId, pageCursor, pageSize);
+
+        String nextCursor = null;
+        if (!summaries.isEmpty() && summaries.size() == BookRepository.buildLimit(pageSize)) {
+            var lastSummary = summaries.getLast();
+            nextCursor = new PageCursor(lastSummary.creationDate(), lastSummary.id()).encode();
+        }
+
+        return ResponseEntity.ok(new OrderSummaryPageModel(mapper.listOfSummaryModel(summaries), nextCursor));
+    }
+
     @GetMapping("/findByBookId/{bookIdForOrders}")
-    final ResponseEntity<List<OrderModel>> findByBookId(@PathVariable("bookIdForOrders")UUID bookId) {
-        var orders = orderRepository.findByBookId(bookId);
+    final ResponseEntity<OrderPageModel> findByBookId(@PathVariable("bookIdForOrders")UUID bookId,
+                                                      @RequestParam(defaultValue = "10") Integer pageSize,
+                                                      @RequestParam(required = false) String cursor) {
+        PageCursor pageCursor = cursor == null ? null : PageCursor.decode(cursor);
+        var orders = orderRepository.findByBookId(bookId, pageCursor, pageSize);
 
-        if (orders.isEmpty()) {
+        if (orders.isEmpty() && pageCursor == null) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found");
         }
 
-        return ResponseEntity.ok(mapper.listOfModel(orders));
+        String nextCursor = null;
+        if (orders.size() == BookRepository.buildLimit(pageSize)) {
+            var lastOrder = orders.getLast();
+            nextCursor = new PageCursor(lastOrder.getCreationDate(), lastOrder.getId()).encode();
+        }
+        int totalEstimate = orderRepository.countByBookId(bookId, MAX_COUNTED_ORDERS + 1);
+
+        return ResponseEntity.ok(new OrderPageModel(
+                mapper.listOfModel(orders),
+                nextCursor,
+                Math.min(totalEstimate, MAX_COUNTED_ORDERS),
+                totalEstimate > MAX_COUNTED_ORDERS
+        ));
+    }
+
+    @GetMapping("/status/{orderId}")
+    final ResponseEntity<OrderStatusModel> status(@PathVariable("orderId") UUID orderId) {
+        var status = orderIntakeService.status(orderId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found"));
+
+        return ResponseEntity.ok(status);
     }
 
+    /**
+     * Holds the copies during checkout, the returned hold is passed to createOrder before it expires.
+     */
+    @PostMapping("/hold")
+    final ResponseEntity<StockHoldModel> hold(@RequestBody @Valid StockHoldDTO stockHoldDTO) {
+        CompletableFuture<Optional<Customer>> foundCustomer = CompletableFuture.supplyAsync(
+                () -> customerRepository.findById(stockHoldDTO.customerId()), LOOKUP_EXECUTOR
+        );
+
+        Map<Book, Integer> books = findBooks(stockHoldDTO.booksId());
+        join(foundCustomer).orElseThrow(NotFoundException::new);
+
+        return ResponseEntity
+                .status(HttpStatus.CREATED)
+                .body(stockHoldService.hold(stockHoldDTO.customerId(), books));
+    }
+
+    /**
+     * With a hold the copies are not taken from stock again, the order has to contain exactly the held books.
+     * Such orders are saved at once, also when the asynchronous intake is enabled, since their stock is already taken.
+     * A replayed idempotency key is answered like the original request: 202 if the order went through the intake.
+     */
     @PostMapping("/createOrder")
-    final ResponseEntity<String> createOrder(@RequestBody @Valid InboundOrderDTO inboundOrderDTO) {
+    final ResponseEntity<String> createOrder(@RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+                                             @RequestParam(required = false) UUID holdId,
+                                             @RequestBody @Valid InboundOrderDTO inboundOrderDTO) {
+        if (idempotencyKey != null) {
+            if (idempotencyKey.isBlank() || idempotencyKey.length() > IdempotencyService.MAX_KEY_LENGTH) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid idempotency key");
+            }
 
-        Customer customer = customerRepository.findById(inboundOrderDTO.customerId()).orElseThrow(NotFoundException::new);
+            Optional<UUID> createdOrderId = idempotencyService.findOrderId(idempotencyKey);
+            if (createdOrderId.isPresent()) {
+                return holdId == null && orderIntakeService.isEnabled()
+                        ? orderAccepted(createdOrderId.get())
+                        : orderCreated(createdOrderId.get());
+            }
+        }
 
-        Map<Book, Integer> books = inboundOrderDTO.booksId().stream()
-                .map(bookId -> bookRepository.findById(bookId).orElseThrow(NotFoundException::new))
-                .collect(Collectors.toMap(book -> book, _ -> 1, Integer::sum));
+        CompletableFuture<Optional<Customer>> foundCustomer = CompletableFuture.supplyAsync(
+                () -> customerRepository.findById(inboundOrderDTO.customerId()), LOOKUP_EXECUTOR
+        );
 
-        validateSaleStatusAndQuantity(books);
+        Map<Book, Integer> books = findBooks(inboundOrderDTO.booksId());
+        Customer customer = join(foundCustomer).orElseThrow(NotFoundException::new);
 
         Order order = Order.create(
                 UUID.randomUUID(),
@@ -89,38 +206,88 @@ public class OrderController {
                 books
         );
 
-        updateBookQuantity(books);
+        Map<UUID, Integer> reservedCopies = holdId == null
+                ? flashSaleService.reserve(books)
+                : Collections.emptyMap();
+        if (holdId == null && orderIntakeService.isEnabled()) {
+            return orderAccepted(orderIntakeService.submit(order, reservedCopies, idempotencyKey));
+        }
 
-        var savedOrder = orderRepository.save(order, books.keySet())
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Could not save order"));
+        Order savedOrder;
+        try {
+            savedOrder = orderRepository.save(new OrderToSave(order, reservedCopies.keySet(), idempotencyKey, holdId))
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Could not save order"));
+        } catch (DuplicateIdempotencyKeyException e) {
+            flashSaleService.release(reservedCopies);
+            return idempotencyService.findOrderId(idempotencyKey)
+                    .map(OrderController::orderCreated)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.CONFLICT, "Idempotency key is reused"));
+        } catch (RuntimeException e) {
+            flashSaleService.release(reservedCopies);
+            throw e;
+        }
 
-        return ResponseEntity
-                .created(URI.create("/library/order/findById/" + savedOrder.getId()))
-                .body("Successfully created order");
+        if (idempotencyKey != null) {
+            idempotencyService.remember(idempotencyKey, savedOrder.getId());
+        }
+        bookService.evictFromCache(books.keySet().stream().map(Book::getId).toList());
+
+        return orderCreated(savedOrder.getId());
+    }
+
+    /**
+     * Safe to retry, a repeated cancellation of the same order changes nothing.
+     */
+    @PostMapping("/cancel/{orderId}")
+    final ResponseEntity<Void> cancel(@PathVariable("orderId") UUID orderId) {
+        orderRepository.cancel(orderId).ifPresent(cancelledOrder -> {
+            flashSaleService.release(cancelledOrder.copiesOfBooks());
+            bookService.evictFromCache(cancelledOrder.copiesOfBooks().keySet());
+        });
+
+        return ResponseEntity.noContent().build();
     }
 
-    private void updateBookQuantity(Map<Book, Integer> books) {
-        for (var pair : books.entrySet()) {
-            Book book = pair.getKey();
-            int requiredQuantityForOneCopyOfBook = pair.getValue();
-            int existedQuantityOnHand = book.getQuantityOnHand().quantityOnHand();
+    /**
+     * Duplicate ids are collapsed into copies of one book.
+     * Books are loaded past the cache: Order.create wires the order into each book,
+     * so the shared cached instances must not be used, and the order is priced from the current price.
+     */
+    private Map<Book, Integer> findBooks(List<UUID> booksId) {
+        Map<UUID, Integer> copiesOfBooks = booksId.stream()
+                .collect(Collectors.toMap(bookId -> bookId, _ -> 1, Integer::sum));
 
-            book.changeQuantityOnHand(existedQuantityOnHand - requiredQuantityForOneCopyOfBook);
+        List<Book> foundBooks = bookRepository.findAllById(List.copyOf(copiesOfBooks.keySet()));
+        if (foundBooks.size() < copiesOfBooks.size()) {
+            throw new NotFoundException();
         }
+
+        Map<Book, Integer> books = new HashMap<>();
+        foundBooks.forEach(book -> books.put(book, copiesOfBooks.get(book.getId())));
+        return books;
     }
 
-    private void validateSaleStatusAndQuantity(Map<Book, Integer> books) {
-        for (var pair : books.entrySet()) {
-            Book book = pair.getKey();
-            if (!book.isItOnSale()) throw new RemovedFromSaleException("Book is not on sale");
+    private static ResponseEntity<String> orderAccepted(UUID orderId) {
+        return ResponseEntity
+                .accepted()
+                .location(URI.create("/library/order/status/" + orderId))
+                .body(orderId.toString());
+    }
 
-            int requiredQuantityForOneCopyOfBook = pair.getValue();
-            int existedQuantityOnHand = book.getQuantityOnHand().quantityOnHand();
+    private static ResponseEntity<String> orderCreated(UUID orderId) {
+        return ResponseEntity
+                .created(URI.create("/library/order/findById/" + orderId))
+                .body("Successfully created order");
+    }
 
-            boolean isQuantityOnHandEnough = existedQuantityOnHand >= requiredQuantityForOneCopyOfBook;
-            if (!isQuantityOnHandEnough) {
-                throw new QuantityOnHandException("We do not have enough books for this order.");
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
             }
+            throw e;
         }
     }
 }
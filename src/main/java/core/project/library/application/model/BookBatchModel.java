@@ -0,0 +1,11 @@
+package core.project.library.application.model;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+import java.util.UUID;
+
+public record BookBatchModel(@NotNull @Valid List<BookModel> books,
+                             @NotNull List<UUID> missingIds) {
+}
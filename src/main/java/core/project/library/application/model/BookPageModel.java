@@ -0,0 +1,10 @@
+package core.project.library.application.model;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+public record BookPageModel(@NotNull @Valid List<BookModel> books,
+                            String nextCursor) {
+}
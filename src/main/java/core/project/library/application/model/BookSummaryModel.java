@@ -0,0 +1,17 @@
+package core.project.library.application.model;
+
+import core.project.library.domain.value_objects.ISBN;
+import core.project.library.domain.value_objects.Price;
+import core.project.library.domain.value_objects.QuantityOnHand;
+import core.project.library.domain.value_objects.Title;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.UUID;
+
+public record BookSummaryModel(@NotNull UUID id,
+                               @NotNull @Valid Title title,
+                               @NotNull @Valid ISBN isbn,
+                               @NotNull @Valid Price price,
+                               @NotNull @Valid QuantityOnHand quantityOnHand) {
+}
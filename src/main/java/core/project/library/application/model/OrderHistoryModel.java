@@ -0,0 +1,21 @@
+package core.project.library.application.model;
+
+import core.project.library.domain.value_objects.ChangeOfOrder;
+import core.project.library.domain.value_objects.PaidAmount;
+import core.project.library.domain.value_objects.TotalPrice;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public record OrderHistoryModel(@NotNull UUID orderId,
+                                @NotNull LocalDateTime creationDate,
+                                @NotNull Integer countOfBooks,
+                                @NotNull @Valid TotalPrice totalPrice,
+                                @NotNull @Valid PaidAmount paidAmount,
+                                @NotNull @Valid ChangeOfOrder changeOfOrder,
+                                boolean cancelled,
+                                @NotNull @Valid List<OrderLineModel> lines) {
+}
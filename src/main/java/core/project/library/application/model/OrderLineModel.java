@@ -0,0 +1,12 @@
+package core.project.library.application.model;
+
+import core.project.library.domain.value_objects.Price;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.UUID;
+
+public record OrderLineModel(@NotNull UUID bookId,
+                             @NotNull Integer countOfCopies,
+                             @NotNull @Valid Price unitPrice) {
+}
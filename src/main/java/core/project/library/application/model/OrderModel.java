@@ -13,6 +13,7 @@ public record OrderModel(@NotNull @Valid TotalPrice totalPrice,
                          @NotNull @Valid PaidAmount paidAmount,
                          @NotNull @Valid ChangeOfOrder changeOfOrder,
                          @NotNull @Valid CreditCard creditCard,
+                         boolean cancelled,
                          @NotNull @Valid CustomerDTO customer,
                          @NotNull @Valid Map<BookDTO, Integer> books) {
 }
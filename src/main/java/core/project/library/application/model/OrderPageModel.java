@@ -0,0 +1,15 @@
+package core.project.library.application.model;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+/**
+ * @param totalEstimate count of orders that are not cancelled, exact unless totalIsCapped, then the real count is bigger.
+ */
+public record OrderPageModel(@NotNull @Valid List<OrderModel> orders,
+                             String nextCursor,
+                             @NotNull Integer totalEstimate,
+                             @NotNull Boolean totalIsCapped) {
+}
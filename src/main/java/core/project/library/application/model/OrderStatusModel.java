@@ -0,0 +1,14 @@
+package core.project.library.application.model;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.util.UUID;
+
+public record OrderStatusModel(@NotNull UUID orderId,
+                               @NotNull Status status,
+                               String reason) {
+
+    public enum Status {
+        ACCEPTED, CREATED, REJECTED
+    }
+}
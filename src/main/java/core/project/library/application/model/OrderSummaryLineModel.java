@@ -0,0 +1,11 @@
+package core.project.library.application.model;
+
+import core.project.library.domain.value_objects.ISBN;
+import core.project.library.domain.value_objects.Title;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+
+public record OrderSummaryLineModel(@NotNull @Valid ISBN isbn,
+                                    @NotNull @Valid Title title,
+                                    @NotNull Integer countOfCopies) {
+}
@@ -0,0 +1,17 @@
+package core.project.library.application.model;
+
+import core.project.library.domain.value_objects.TotalPrice;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public record OrderSummaryModel(@NotNull UUID id,
+                                @NotNull LocalDateTime creationDate,
+                                @NotNull Integer countOfBooks,
+                                @NotNull @Valid TotalPrice totalPrice,
+                                boolean cancelled,
+                                @NotNull @Valid List<OrderSummaryLineModel> lines) {
+}
@@ -0,0 +1,10 @@
+package core.project.library.application.model;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+public record OrderSummaryPageModel(@NotNull @Valid List<OrderSummaryModel> orders,
+                                    String nextCursor) {
+}
@@ -0,0 +1,11 @@
+package core.project.library.application.model;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+import java.util.UUID;
+
+public record StockHoldDTO(@NotNull UUID customerId,
+                           @NotNull @NotEmpty List<UUID> booksId) {
+}
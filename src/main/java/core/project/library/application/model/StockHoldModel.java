@@ -0,0 +1,10 @@
+package core.project.library.application.model;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record StockHoldModel(@NotNull UUID holdId,
+                             @NotNull LocalDateTime expiresAt) {
+}
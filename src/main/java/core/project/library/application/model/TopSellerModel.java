@@ -0,0 +1,14 @@
+package core.project.library.application.model;
+
+import core.project.library.domain.value_objects.Category;
+import core.project.library.domain.value_objects.TotalPrice;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.UUID;
+
+public record TopSellerModel(@NotNull UUID bookId,
+                             @NotNull Category category,
+                             long units,
+                             @NotNull @Valid TotalPrice revenue) {
+}
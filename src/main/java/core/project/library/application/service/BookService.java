@@ -1,16 +1,25 @@
 package core.project.library.application.service;
 
 import core.project.library.domain.entities.Book;
+import core.project.library.domain.value_objects.Category;
 import core.project.library.domain.value_objects.ISBN;
+import core.project.library.infrastructure.cache.BookCache;
 import core.project.library.infrastructure.exceptions.NotFoundException;
+import core.project.library.infrastructure.pagination.PageCursor;
+import core.project.library.infrastructure.pagination.SearchCursor;
 import core.project.library.infrastructure.repository.AuthorRepository;
 import core.project.library.infrastructure.repository.BookRepository;
+import core.project.library.infrastructure.repository.BookSalesRepository;
 import core.project.library.infrastructure.repository.PublisherRepository;
+import core.project.library.infrastructure.search.TitlePrefixIndex;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -18,22 +27,34 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class BookService {
 
+    private final BookCache bookCache;
+
     private final BookRepository bookRepository;
 
+    private final BookSalesRepository bookSalesRepository;
+
+    private final TitlePrefixIndex titlePrefixIndex;
+
     private final AuthorRepository authorRepository;
 
     private final PublisherRepository publisherRepository;
 
+    private final FlashSaleService flashSaleService;
+
     public boolean isIsbnExists(ISBN isbn) {
         return bookRepository.isbnExists(isbn);
     }
 
     public final Optional<Book> findById(UUID bookId) {
-        return bookRepository.findById(bookId);
+        return bookCache.findById(bookId, () -> bookRepository.findById(bookId));
     }
 
     public final Optional<Book> findByISBN(ISBN isbn) {
-        return bookRepository.findByISBN(isbn);
+        return bookCache.findByISBN(isbn, () -> bookRepository.findByISBN(isbn));
+    }
+
+    public final Map<UUID, Book> findAllById(Collection<UUID> bookIds) {
+        return bookCache.findAllById(bookIds, bookRepository::findAllById);
     }
 
     public final List<Book> listOfBooks(
@@ -42,13 +63,36 @@ public class BookService {
         return bookRepository.listOfBooks(pageNumber, pageSize, title, category);
     }
 
+    public final List<BookRepository.BookSummary> listOfBookSummaries(
+            Integer pageNumber, Integer pageSize, String title, String category
+    ) {
+        return bookRepository.listOfBookSummaries(pageNumber, pageSize, title, category);
+    }
+
+    public final List<Book> listOfBooks(
+            PageCursor cursor, Integer pageSize, String title, String category
+    ) {
+        return bookRepository.listOfBooks(cursor, pageSize, title, category);
+    }
+
+    public final List<String> suggestTitles(String prefix, int limit) {
+        return titlePrefixIndex.suggest(prefix, limit);
+    }
+
+    public final BookRepository.SearchPage search(String query, SearchCursor cursor, Integer pageSize) {
+        return bookRepository.search(query, cursor, pageSize);
+    }
+
     public void completelySaveBook(Book book) {
         bookRepository.completelySaveBook(book);
+        bookCache.evict(book);
+        titlePrefixIndex.add(book);
     }
 
     public void patchBook(UUID bookId, String description,
                           Double price, Integer quantityOnHand) {
         bookRepository.findById(bookId).ifPresentOrElse(foundBook ->  {
+            int previousQuantityOnHand = foundBook.getQuantityOnHand().quantityOnHand();
             if (StringUtils.hasText(description)) {
                 foundBook.changeDescription(description);
             }
@@ -59,6 +103,10 @@ public class BookService {
                 foundBook.changeQuantityOnHand(quantityOnHand);
             }
             bookRepository.patchBook(foundBook);
+            bookCache.evict(foundBook);
+            if (quantityOnHand != null) {
+                flashSaleService.quantityChanged(bookId, quantityOnHand - previousQuantityOnHand);
+            }
         }, () -> {
             throw new NotFoundException();
         });
@@ -68,8 +116,35 @@ public class BookService {
         bookRepository.findById(bookId).ifPresentOrElse(foundBook -> {
             foundBook.withdrawnFromSale();
             bookRepository.withdrawBookFromTheSale(foundBook);
+            bookCache.evict(foundBook);
+            titlePrefixIndex.remove(foundBook);
+            flashSaleService.withdrawn(bookId);
         }, () -> {
             throw new NotFoundException();
         });
     }
+
+    public final Map<Category, Integer> categoryFacets() {
+        return bookRepository.categoryFacets();
+    }
+
+    public void rebuildCategoryFacets() {
+        bookRepository.rebuildCategoryFacets();
+    }
+
+    public List<BookSalesRepository.TopSeller> topSellers(LocalDate from, LocalDate to, Category category, int limit) {
+        return bookSalesRepository.topSellers(from, to, category, limit);
+    }
+
+    public void rebuildSalesRollup() {
+        bookSalesRepository.rebuild();
+    }
+
+    /**
+     * For writes that change books outside of this service, e.g. stock decrements of a placed order.
+     * Has to be called after the writing transaction has committed.
+     */
+    public void evictFromCache(Collection<UUID> bookIds) {
+        bookCache.evict(bookIds);
+    }
 }
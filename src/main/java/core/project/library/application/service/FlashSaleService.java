@@ -0,0 +1,168 @@
+package core.project.library.application.service;
+
+import core.project.library.domain.entities.Book;
+import core.project.library.infrastructure.cache.BookCache;
+import core.project.library.infrastructure.exceptions.QuantityOnHandException;
+import core.project.library.infrastructure.repository.OrderRepository;
+import core.project.library.infrastructure.stock.StripedStock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Flash-sale mode for the configured books: copies are reserved from striped in-memory counters instead of
+ * locking the book row on every order, the order lines are saved as pending
+ * and a background flusher takes their copies from stock in batches.
+ * <p>
+ * Reservations live only in memory, they become durable together with the pending lines of the saved order.
+ * On startup pending lines left by a previous run are applied first and the counters are seeded afterwards,
+ * so reservations lost in a crash are simply not counted. Counters belong to a single application instance,
+ * {@link BookService} adjusts them by quantity changes of a flash-sale book and drops the counter of a withdrawn one,
+ * so the counters alone tell whether a flash-sale book is on sale.
+ */
+@Slf4j
+@Service
+public class FlashSaleService {
+
+    private final BookCache bookCache;
+
+    private final OrderRepository orderRepository;
+
+    private final Set<UUID> flashSaleBookIds;
+
+    private final int countOfStripes;
+
+    private final int flushBatchSize;
+
+    private final Map<UUID, StripedStock> stocks = new ConcurrentHashMap<>();
+
+    public FlashSaleService(BookCache bookCache, OrderRepository orderRepository,
+                            @Value("${library.flash-sale.book-ids:}") Set<UUID> flashSaleBookIds,
+                            @Value("${library.flash-sale.stripes:16}") int countOfStripes,
+                            @Value("${library.flash-sale.flush-batch-size:500}") int flushBatchSize) {
+        this.bookCache = bookCache;
+        this.orderRepository = orderRepository;
+        this.flashSaleBookIds = Set.copyOf(flashSaleBookIds);
+        this.countOfStripes = countOfStripes;
+        this.flushBatchSize = flushBatchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        int countOfBatches = 0;
+        while (applyPendingStock()) {
+            countOfBatches++;
+        }
+        if (countOfBatches > 0) {
+            log.info("Flash sale: applied {} batches of pending order lines left by the previous run.", countOfBatches);
+        }
+
+        if (flashSaleBookIds.isEmpty()) {
+            return;
+        }
+
+        orderRepository.reservableQuantities(flashSaleBookIds).forEach((bookId, quantity) ->
+                stocks.put(bookId, new StripedStock(Math.max(quantity, 0), countOfStripes))
+        );
+        log.info("Flash sale is started for {} books.", stocks.size());
+    }
+
+    public boolean isActive() {
+        return !stocks.isEmpty();
+    }
+
+    /**
+     * Reserves copies of the flash-sale books of an order, all or nothing. Other books of the order are ignored,
+     * withdrawn flash-sale books among them, their lines are rejected by the guarded decrement of the saved order.
+     * @return reserved copies per book, to be released if the order is not saved.
+     */
+    public Map<UUID, Integer> reserve(Map<Book, Integer> books) {
+        Map<UUID, Integer> reservedCopies = new HashMap<>();
+
+        for (var line : books.entrySet()) {
+            Book book = line.getKey();
+            StripedStock stock = stocks.get(book.getId());
+            if (stock == null) {
+                continue;
+            }
+
+            if (!stock.tryReserve(line.getValue())) {
+                release(reservedCopies);
+                throw new QuantityOnHandException("We do not have enough books for this order.");
+            }
+            reservedCopies.put(book.getId(), line.getValue());
+        }
+
+        return reservedCopies;
+    }
+
+    /**
+     * Also gives back the copies of a cancelled order, they are reservable again.
+     */
+    public void release(Map<UUID, Integer> reservedCopies) {
+        reservedCopies.forEach((bookId, copies) -> {
+            StripedStock stock = stocks.get(bookId);
+            if (stock != null) {
+                stock.release(copies);
+            }
+        });
+    }
+
+    /**
+     * Moves the counter of the book by a change of its quantity on hand made outside of orders.
+     * A decrease larger than the copies left in the counter only empties it.
+     */
+    public void quantityChanged(UUID bookId, int delta) {
+        StripedStock stock = stocks.get(bookId);
+        if (stock == null || delta == 0) {
+            return;
+        }
+
+        if (delta > 0) {
+            stock.release(delta);
+            return;
+        }
+        int takenCopies = stock.takeUpTo(-delta);
+        if (takenCopies < -delta) {
+            log.warn("Flash sale: quantity of book {} dropped below its reserved copies by {}.", bookId, -delta - takenCopies);
+        }
+    }
+
+    /**
+     * Drops the counter of a withdrawn book, its pending lines are still flushed.
+     */
+    public void withdrawn(UUID bookId) {
+        if (stocks.remove(bookId) != null) {
+            log.info("Flash sale is stopped for withdrawn book {}.", bookId);
+        }
+    }
+
+    /**
+     * Keeps flushing after all flash-sale books are withdrawn, their pending lines are still to be applied.
+     */
+    @Scheduled(fixedDelayString = "${library.flash-sale.flush-interval:PT1S}")
+    public void flush() {
+        if (!flashSaleBookIds.isEmpty()) {
+            applyPendingStock();
+        }
+    }
+
+    /**
+     * @return true if any pending lines were applied.
+     */
+    private boolean applyPendingStock() {
+        Map<UUID, Integer> appliedCopies = orderRepository.applyPendingStock(flushBatchSize);
+        if (appliedCopies.isEmpty()) {
+            return false;
+        }
+
+        bookCache.evict(appliedCopies.keySet());
+        return true;
+    }
+}
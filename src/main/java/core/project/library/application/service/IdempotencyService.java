@@ -0,0 +1,71 @@
+package core.project.library.application.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import core.project.library.infrastructure.repository.OrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Idempotency keys of created orders. Recent keys are kept in a bounded in-memory map,
+ * the Idempotency_Keys table is the source of truth for keys evicted from it or claimed before a restart.
+ * Keys expire after the time to live and are purged from the table periodically.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private final OrderRepository orderRepository;
+
+    private final Duration timeToLive;
+
+    private final Cache<String, UUID> orderIdsByKey;
+
+    public IdempotencyService(OrderRepository orderRepository,
+                              @Value("${library.order.idempotency.maximum-size:10000}") long maximumSize,
+                              @Value("${library.order.idempotency.time-to-live:PT24H}") Duration timeToLive) {
+        this.orderRepository = orderRepository;
+        this.timeToLive = timeToLive;
+        this.orderIdsByKey = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .build();
+    }
+
+    public Optional<UUID> findOrderId(String idempotencyKey) {
+        UUID orderId = orderIdsByKey.getIfPresent(idempotencyKey);
+        if (orderId != null) {
+            return Optional.of(orderId);
+        }
+
+        Optional<UUID> storedOrderId = orderRepository.findOrderIdByIdempotencyKey(
+                idempotencyKey, LocalDateTime.now().minus(timeToLive)
+        );
+        storedOrderId.ifPresent(id -> orderIdsByKey.put(idempotencyKey, id));
+        return storedOrderId;
+    }
+
+    /**
+     * Has to be called after the order with the claimed key has been saved.
+     */
+    public void remember(String idempotencyKey, UUID orderId) {
+        orderIdsByKey.put(idempotencyKey, orderId);
+    }
+
+    @Scheduled(fixedDelayString = "${library.order.idempotency.purge-interval:PT1H}")
+    public void purgeExpiredKeys() {
+        int purgedKeys = orderRepository.purgeIdempotencyKeys(LocalDateTime.now().minus(timeToLive));
+        if (purgedKeys > 0) {
+            log.info("Purged {} expired idempotency keys.", purgedKeys);
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package core.project.library.application.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import core.project.library.application.model.OrderStatusModel;
+import core.project.library.application.model.OrderStatusModel.Status;
+import core.project.library.domain.entities.Book;
+import core.project.library.domain.entities.Order;
+import core.project.library.infrastructure.exceptions.OrderIntakeOverloadedException;
+import core.project.library.infrastructure.repository.OrderRepository;
+import core.project.library.infrastructure.repository.OrderRepository.OrderToSave;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asynchronous order intake: validated orders are put on a bounded queue and a single writer on a virtual thread
+ * saves them in micro-batches, one transaction per batch, so a connection is held once per batch instead of per order.
+ * A batch that fails is retried order by order, so one rejected order does not reject its neighbours.
+ * <p>
+ * Statuses of recent orders are kept in memory; after they expire or after a restart
+ * a status is answered from the Orders table.
+ */
+@Slf4j
+@Service
+public class OrderIntakeService {
+
+    private final boolean enabled;
+
+    private final int maxBatchSize;
+
+    private final BookService bookService;
+
+    private final OrderRepository orderRepository;
+
+    private final FlashSaleService flashSaleService;
+
+    private final IdempotencyService idempotencyService;
+
+    private final BlockingQueue<PendingOrder> pendingOrders;
+
+    private final Cache<UUID, OrderStatusModel> statuses;
+
+    /**Idempotency keys of the orders that are queued but not written yet.*/
+    private final Map<String, UUID> queuedKeys = new ConcurrentHashMap<>();
+
+    private volatile boolean running;
+
+    private Thread writer;
+
+    private record PendingOrder(Order order, Map<UUID, Integer> reservedCopies, String idempotencyKey) {}
+
+    public OrderIntakeService(BookService bookService, OrderRepository orderRepository,
+                              FlashSaleService flashSaleService, IdempotencyService idempotencyService,
+                              @Value("${library.order.intake.async:false}") boolean enabled,
+                              @Value("${library.order.intake.queue-capacity:1000}") int queueCapacity,
+                              @Value("${library.order.intake.max-batch-size:50}") int maxBatchSize,
+                              @Value("${library.order.intake.status-time-to-live:PT1H}") Duration statusTimeToLive) {
+        this.bookService = bookService;
+        this.orderRepository = orderRepository;
+        this.flashSaleService = flashSaleService;
+        this.idempotencyService = idempotencyService;
+        this.enabled = enabled;
+        this.maxBatchSize = maxBatchSize;
+        this.pendingOrders = new ArrayBlockingQueue<>(queueCapacity);
+        this.statuses = Caffeine.newBuilder()
+                .maximumSize(queueCapacity * 10L)
+                .expireAfterWrite(statusTimeToLive)
+                .build();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (enabled) {
+            running = true;
+            writer = Thread.ofVirtual().name("order-intake-writer").start(this::writeOrders);
+            log.info("Asynchronous order intake is started.");
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (writer != null) {
+            running = false;
+            writer.join();
+        }
+    }
+
+    /**
+     * Queues a validated order whose flash-sale copies are already reserved.
+     * @return id of the queued order, or of the order already queued or created with the same idempotency key.
+     * @throws OrderIntakeOverloadedException if the queue is full, the reservation is released then.
+     */
+    public UUID submit(Order order, Map<UUID, Integer> reservedCopies, String idempotencyKey) {
+        if (idempotencyKey != null) {
+            UUID queuedOrderId = queuedKeys.putIfAbsent(idempotencyKey, order.getId());
+            if (queuedOrderId != null) {
+                flashSaleService.release(reservedCopies);
+                return queuedOrderId;
+            }
+        }
+
+        statuses.put(order.getId(), new OrderStatusModel(order.getId(), Status.ACCEPTED, null));
+        if (!pendingOrders.offer(new PendingOrder(order, reservedCopies, idempotencyKey))) {
+            statuses.invalidate(order.getId());
+            if (idempotencyKey != null) {
+                queuedKeys.remove(idempotencyKey);
+            }
+            flashSaleService.release(reservedCopies);
+            throw new OrderIntakeOverloadedException("Too many orders are waiting, try again later.");
+        }
+
+        return order.getId();
+    }
+
+    public Optional<OrderStatusModel> status(UUID orderId) {
+        OrderStatusModel status = statuses.getIfPresent(orderId);
+        if (status != null) {
+            return Optional.of(status);
+        }
+
+        if (orderRepository.existsById(orderId)) {
+            return Optional.of(new OrderStatusModel(orderId, Status.CREATED, null));
+        }
+        return Optional.empty();
+    }
+
+    private void writeOrders() {
+        List<PendingOrder> batch = new ArrayList<>(maxBatchSize);
+        while (running || !pendingOrders.isEmpty()) {
+            try {
+                PendingOrder first = pendingOrders.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+
+                batch.add(first);
+                pendingOrders.drainTo(batch, maxBatchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Order intake writer failed: {}", e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<PendingOrder> batch) {
+        try {
+            orderRepository.saveAll(batch.stream().map(OrderIntakeService::toSave).toList());
+            batch.forEach(this::created);
+        } catch (RuntimeException batchFailure) {
+            if (batch.size() == 1) {
+                rejected(batch.getFirst(), batchFailure);
+                return;
+            }
+
+            for (PendingOrder pendingOrder : batch) {
+                try {
+                    orderRepository.saveAll(List.of(toSave(pendingOrder)));
+                    created(pendingOrder);
+                } catch (RuntimeException e) {
+                    rejected(pendingOrder, e);
+                }
+            }
+        }
+    }
+
+    private static OrderToSave toSave(PendingOrder pendingOrder) {
+        return new OrderToSave(
+                pendingOrder.order(), pendingOrder.reservedCopies().keySet(), pendingOrder.idempotencyKey(), null
+        );
+    }
+
+    private void created(PendingOrder pendingOrder) {
+        UUID orderId = pendingOrder.order().getId();
+        if (pendingOrder.idempotencyKey() != null) {
+            idempotencyService.remember(pendingOrder.idempotencyKey(), orderId);
+            queuedKeys.remove(pendingOrder.idempotencyKey());
+        }
+        statuses.put(orderId, new OrderStatusModel(orderId, Status.CREATED, null));
+        bookService.evictFromCache(pendingOrder.order().getBooks().keySet().stream().map(Book::getId).toList());
+    }
+
+    private void rejected(PendingOrder pendingOrder, RuntimeException reason) {
+        UUID orderId = pendingOrder.order().getId();
+        flashSaleService.release(pendingOrder.reservedCopies());
+        if (pendingOrder.idempotencyKey() != null) {
+            queuedKeys.remove(pendingOrder.idempotencyKey());
+        }
+        statuses.put(orderId, new OrderStatusModel(orderId, Status.REJECTED, reason.getMessage()));
+        log.info("Order {} is rejected: {}", orderId, reason.getMessage());
+    }
+}
@@ -0,0 +1,118 @@
+package core.project.library.application.service;
+
+import core.project.library.application.model.StockHoldModel;
+import core.project.library.domain.entities.Book;
+import core.project.library.infrastructure.repository.OrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time-limited stock holds for checkout: the held copies are taken from stock when the hold is placed,
+ * and an order placed with the hold consumes it instead of taking the copies again.
+ * <p>
+ * Holds are stored in the Stock_Holds table, their expirations are kept in a delay queue,
+ * so the reaper only touches holds that are due and releases them in batches.
+ * The queue is seeded from the table on startup, holds that expired in the meantime are released right away.
+ */
+@Slf4j
+@Service
+public class StockHoldService {
+
+    private final BookService bookService;
+
+    private final FlashSaleService flashSaleService;
+
+    private final OrderRepository orderRepository;
+
+    private final Duration timeToLive;
+
+    private final int reapBatchSize;
+
+    private final DelayQueue<HoldExpiration> expirations = new DelayQueue<>();
+
+    private record HoldExpiration(UUID holdId, LocalDateTime expiresAt) implements Delayed {
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(Duration.between(LocalDateTime.now(), expiresAt));
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return expiresAt.compareTo(((HoldExpiration) other).expiresAt());
+        }
+    }
+
+    public StockHoldService(BookService bookService, FlashSaleService flashSaleService, OrderRepository orderRepository,
+                            @Value("${library.stock-hold.time-to-live:PT2M}") Duration timeToLive,
+                            @Value("${library.stock-hold.reap-batch-size:100}") int reapBatchSize) {
+        this.bookService = bookService;
+        this.flashSaleService = flashSaleService;
+        this.orderRepository = orderRepository;
+        this.timeToLive = timeToLive;
+        this.reapBatchSize = reapBatchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        orderRepository.findHoldExpirations().forEach((holdId, expiresAt) ->
+                expirations.add(new HoldExpiration(holdId, expiresAt))
+        );
+        if (!expirations.isEmpty()) {
+            log.info("Stock holds: {} holds left by the previous run are tracked.", expirations.size());
+        }
+    }
+
+    /**
+     * Holds the copies of the books, all or nothing.
+     * Copies of flash-sale books are reserved from the in-memory counters as well, so they stay consistent with stock.
+     */
+    public StockHoldModel hold(UUID customerId, Map<Book, Integer> books) {
+        UUID holdId = UUID.randomUUID();
+        LocalDateTime expiresAt = LocalDateTime.now().plus(timeToLive);
+
+        Map<UUID, Integer> copiesOfBooks = new HashMap<>();
+        books.forEach((book, copies) -> copiesOfBooks.put(book.getId(), copies));
+
+        Map<UUID, Integer> reservedCopies = flashSaleService.reserve(books);
+        try {
+            orderRepository.holdStock(holdId, customerId, copiesOfBooks, expiresAt);
+        } catch (RuntimeException e) {
+            flashSaleService.release(reservedCopies);
+            throw e;
+        }
+
+        expirations.add(new HoldExpiration(holdId, expiresAt));
+        bookService.evictFromCache(copiesOfBooks.keySet());
+        return new StockHoldModel(holdId, expiresAt);
+    }
+
+    @Scheduled(fixedDelayString = "${library.stock-hold.reap-interval:PT1S}")
+    public void reap() {
+        List<HoldExpiration> expiredHolds = new ArrayList<>(reapBatchSize);
+        while (expirations.drainTo(expiredHolds, reapBatchSize) > 0) {
+            List<UUID> holdIds = expiredHolds.stream().map(HoldExpiration::holdId).toList();
+            try {
+                Map<UUID, Integer> releasedCopies = orderRepository.releaseExpiredHolds(holdIds, LocalDateTime.now());
+                flashSaleService.release(releasedCopies);
+                bookService.evictFromCache(releasedCopies.keySet());
+            } catch (RuntimeException e) {
+                log.error("Stock holds could not be released, they are retried on the next run: {}", e.getMessage());
+                expirations.addAll(expiredHolds);
+                return;
+            }
+            expiredHolds.clear();
+        }
+    }
+}
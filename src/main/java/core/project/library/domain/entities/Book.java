@@ -8,7 +8,6 @@ import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 @Getter
 public class Book {
@@ -94,7 +93,7 @@ public class Book {
     }
 
     public Price getPrice() {
-        return new Price(price.price());
+        return new Price(price.cents());
     }
 
     public QuantityOnHand getQuantityOnHand() {
@@ -106,7 +105,7 @@ public class Book {
     }
 
     public void changePrice(Double price) {
-        this.price = new Price(price);
+        this.price = Price.of(price);
     }
 
     public void changeQuantityOnHand(Integer quantityOnHand) {
@@ -126,13 +125,22 @@ public class Book {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
 
-        Book book = (Book) o;
+        return Objects.equals(id, ((Book) o).id);
+    }
 
-        Set<UUID> ourAuthors = authors.stream().map(Author::getId).collect(Collectors.toSet());
-        Set<UUID> theirAuthors = book.authors.stream().map(Author::getId).collect(Collectors.toSet());
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(id);
+    }
 
-        Set<UUID> ourOrders = orders.stream().map(Order::getId).collect(Collectors.toSet());
-        Set<UUID> theirOrders = book.orders.stream().map(Order::getId).collect(Collectors.toSet());
+    /**
+     * State comparison for tests, the publisher, authors and orders are compared by id.
+     */
+    public boolean deepEquals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        Book book = (Book) o;
 
         return Objects.equals(id, book.id) &&
                 Objects.equals(title, book.title) &&
@@ -143,21 +151,8 @@ public class Book {
                 Objects.equals(events, book.events) &&
                 category == book.category &&
                 Objects.equals(publisher.getId(), book.publisher.getId()) &&
-                Objects.equals(ourAuthors, theirAuthors) &&
-                Objects.equals(ourOrders, theirOrders);
-    }
-
-    @Override
-    public int hashCode() {
-        int result = Objects.hashCode(id);
-        result = 31 * result + Objects.hashCode(title);
-        result = 31 * result + Objects.hashCode(description);
-        result = 31 * result + Objects.hashCode(isbn);
-        result = 31 * result + Objects.hashCode(price);
-        result = 31 * result + Objects.hashCode(quantityOnHand);
-        result = 31 * result + Objects.hashCode(events);
-        result = 31 * result + Objects.hashCode(category);
-        return result;
+                Objects.equals(authors, book.authors) &&
+                Objects.equals(orders, book.orders);
     }
 
     @Override
@@ -8,7 +8,6 @@ import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 @Getter
 public class Customer {
@@ -60,10 +59,22 @@ public class Customer {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
 
-        Customer customer = (Customer) o;
+        return Objects.equals(id, ((Customer) o).id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(id);
+    }
+
+    /**
+     * State comparison for tests, the orders are compared by id.
+     */
+    public boolean deepEquals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
 
-        Set<UUID> ourOrders = orders.stream().map(Order::getId).collect(Collectors.toSet());
-        Set<UUID> theirOrders = customer.orders.stream().map(Order::getId).collect(Collectors.toSet());
+        Customer customer = (Customer) o;
 
         return Objects.equals(id, customer.id) &&
                 Objects.equals(firstName, customer.firstName) &&
@@ -71,18 +82,7 @@ public class Customer {
                 Objects.equals(password, customer.password) &&
                 Objects.equals(email, customer.email) &&
                 Objects.equals(events, customer.events) &&
-                Objects.equals(ourOrders, theirOrders);
-    }
-
-    @Override
-    public int hashCode() {
-        int result = Objects.hashCode(id);
-        result = 31 * result + Objects.hashCode(firstName);
-        result = 31 * result + Objects.hashCode(lastName);
-        result = 31 * result + Objects.hashCode(password);
-        result = 31 * result + Objects.hashCode(email);
-        result = 31 * result + Objects.hashCode(events);
-        return result;
+                Objects.equals(orders, customer.orders);
     }
 
     @Override
@@ -10,7 +10,6 @@ import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.time.LocalDateTime;
-import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
@@ -25,14 +24,15 @@ public class Order {
     private final ChangeOfOrder changeOfOrder;
     private final CreditCard creditCard;
     private final LocalDateTime creationDate;
+    private final boolean cancelled;
     private final /**@ManyToOne*/
             Customer customer;
     private final /**@ManyToMany*/
             Map<Book, Integer> books;
 
     private Order(UUID id, Integer countOfBooks, TotalPrice totalPrice, PaidAmount paidAmount,
-                  ChangeOfOrder changeOfOrder, CreditCard creditCard, LocalDateTime creationDate, Customer customer,
-                  Map<Book, Integer> books) {
+                  ChangeOfOrder changeOfOrder, CreditCard creditCard, LocalDateTime creationDate, boolean cancelled,
+                  Customer customer, Map<Book, Integer> books) {
         Objects.requireNonNull(id);
         Objects.requireNonNull(countOfBooks);
         Objects.requireNonNull(totalPrice);
@@ -46,13 +46,13 @@ public class Order {
         if (countOfBooks <= 0) {
             throw new NegativeValueException("Count of books can`t be negative or zero");
         }
-        if (totalPrice.totalPrice() < 0.0) {
+        if (totalPrice.cents() < 0) {
             throw new NegativeValueException("Total price can`t be negative");
         }
-        if (paidAmount.paidAmount() < 0.0) {
+        if (paidAmount.cents() < 0) {
             throw new NegativeValueException("Paid amount can`t be negative or smaller than total price in order");
         }
-        if (paidAmount.paidAmount() < totalPrice.totalPrice()) {
+        if (paidAmount.cents() < totalPrice.cents()) {
             throw new InsufficientPaymentException("The paid amount is not enough to complete the order");
         }
         if (books.isEmpty()) {
@@ -66,6 +66,7 @@ public class Order {
         this.changeOfOrder = changeOfOrder;
         this.creditCard = creditCard;
         this.creationDate = creationDate;
+        this.cancelled = cancelled;
         this.customer = customer;
         this.books = books;
     }
@@ -73,7 +74,7 @@ public class Order {
     public static Order create(UUID id, PaidAmount paidAmount, CreditCard creditCard,
                                LocalDateTime creationDate, Customer customer, Map<Book, Integer> books) {
         Integer countOfBooks = calculateCountOfBooks(books);
-        TotalPrice totalPrice = calculateTotalPrice(books);
+        TotalPrice totalPrice = totalPriceOf(books);
         ChangeOfOrder changeOfOrder = calculateChange(totalPrice, paidAmount);
 
         Order order = new Order(
@@ -84,6 +85,7 @@ public class Order {
                 changeOfOrder,
                 creditCard,
                 creationDate,
+                false,
                 customer,
                 Map.copyOf(books)
         );
@@ -94,15 +96,58 @@ public class Order {
         return order;
     }
 
+    /**
+     * Rebuilds a saved order from its stored totals, so they do not drift with later changes of book prices.
+     * A cancelled order is restored as well, flagged, since it stays in the order history of the customer.
+     */
+    public static Order restore(UUID id, Integer countOfBooks, TotalPrice totalPrice, PaidAmount paidAmount,
+                                ChangeOfOrder changeOfOrder, CreditCard creditCard, LocalDateTime creationDate,
+                                boolean cancelled, Customer customer, Map<Book, Integer> books) {
+        Order order = new Order(
+                id,
+                countOfBooks,
+                totalPrice,
+                paidAmount,
+                changeOfOrder,
+                creditCard,
+                creationDate,
+                cancelled,
+                customer,
+                Map.copyOf(books)
+        );
+
+        customer.addOrder(order);
+        books.forEach((book, _) -> book.addOrder(order));
+
+        return order;
+    }
+
+    /**
+     * Identity of the order, allocation free and without touching the customer or the books,
+     * so orders are cheap keys of the hash sets in {@link Customer} and {@link Book}.
+     */
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
 
-        Order order = (Order) o;
+        return Objects.equals(id, ((Order) o).id);
+    }
 
-        List<UUID> ourBooks = books.keySet().stream().map(Book::getId).toList();
-        List<UUID> theirBooks = order.books.keySet().stream().map(Book::getId).toList();
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(id);
+    }
+
+    /**
+     * Compares the whole state, the customer deeply and the books by id. Meant for tests,
+     * {@link #equals(Object)} is the identity of the order.
+     */
+    public boolean deepEquals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        Order order = (Order) o;
 
         return Objects.equals(id, order.id) &&
                 Objects.equals(countOfBooks, order.countOfBooks) &&
@@ -111,21 +156,9 @@ public class Order {
                 Objects.equals(changeOfOrder, order.changeOfOrder) &&
                 Objects.equals(creditCard, order.creditCard) &&
                 Objects.equals(creationDate, order.creationDate) &&
-                Objects.equals(customer, order.customer) &&
-                Objects.equals(ourBooks, theirBooks);
-    }
-
-    @Override
-    public int hashCode() {
-        int result = Objects.hashCode(id);
-        result = 31 * result + Objects.hashCode(countOfBooks);
-        result = 31 * result + Objects.hashCode(totalPrice);
-        result = 31 * result + Objects.hashCode(paidAmount);
-        result = 31 * result + Objects.hashCode(changeOfOrder);
-        result = 31 * result + Objects.hashCode(creditCard);
-        result = 31 * result + Objects.hashCode(creationDate);
-        result = 31 * result + Objects.hashCode(customer);
-        return result;
+                cancelled == order.cancelled &&
+                customer.deepEquals(order.customer) &&
+                Objects.equals(books.keySet(), order.books.keySet());
     }
 
     @Override
@@ -138,11 +171,12 @@ public class Order {
                         paid_amount = %f,
                         change_of_order = %f,
                         creation_date = %s,
+                        cancelled = %b,
                         }
                         """,
                 id.toString(), countOfBooks,
                 totalPrice.totalPrice(), paidAmount.paidAmount(),
-                changeOfOrder.changeOfOrder(), creationDate.toString()
+                changeOfOrder.changeOfOrder(), creationDate.toString(), cancelled
         );
     }
 
@@ -152,20 +186,19 @@ public class Order {
                 .reduce(0, Integer::sum);
     }
 
-    private static TotalPrice calculateTotalPrice(Map<Book, Integer> books) {
-        Double price = books.entrySet()
-                .stream()
-                .map(entry -> {
-                    int bookCopies = entry.getValue();
-                    double priceOfOneCopy = entry.getKey().getPrice().price();
-                    return priceOfOneCopy * bookCopies;
-                })
-                .reduce(0.0, Double::sum);
-
-        return new TotalPrice(price);
+    /**
+     * Exact sum in cents, without boxing or rounding.
+     */
+    public static TotalPrice totalPriceOf(Map<Book, Integer> books) {
+        long cents = 0;
+        for (Map.Entry<Book, Integer> entry : books.entrySet()) {
+            cents = Math.addExact(cents, entry.getKey().getPrice().times(entry.getValue()));
+        }
+
+        return new TotalPrice(cents);
     }
 
     private static ChangeOfOrder calculateChange(TotalPrice totalPrice, PaidAmount paidAmount) {
-        return new ChangeOfOrder(paidAmount.paidAmount() - totalPrice.totalPrice());
+        return new ChangeOfOrder(paidAmount.cents() - totalPrice.cents());
     }
 }
\ No newline at end of file
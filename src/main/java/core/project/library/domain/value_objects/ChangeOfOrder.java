@@ -1,18 +1,39 @@
 package core.project.library.domain.value_objects;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import core.project.library.infrastructure.exceptions.NegativeValueException;
 import core.project.library.infrastructure.exceptions.NullValueException;
-import jakarta.validation.constraints.NotNull;
 
-public record ChangeOfOrder(@NotNull Double changeOfOrder) {
+import java.math.BigDecimal;
+
+public record ChangeOfOrder(@JsonIgnore long cents) {
 
     public ChangeOfOrder {
+        if (cents < 0) {
+            throw new NegativeValueException("Paid amount cannot be lower than total price of books");
+        }
+    }
+
+    @JsonCreator
+    public static ChangeOfOrder of(@JsonProperty("changeOfOrder") BigDecimal changeOfOrder) {
         if (changeOfOrder == null) {
             throw new NullValueException("Change can`t be null");
         }
+        return new ChangeOfOrder(MinorUnits.of(changeOfOrder));
+    }
 
-        if (changeOfOrder < 0.0) {
-            throw new NegativeValueException("Paid amount cannot be lower than total price of books");
-        }
+    public static ChangeOfOrder of(double changeOfOrder) {
+        return new ChangeOfOrder(MinorUnits.of(changeOfOrder));
+    }
+
+    @JsonProperty("changeOfOrder")
+    public double changeOfOrder() {
+        return MinorUnits.toDouble(cents);
+    }
+
+    public BigDecimal toBigDecimal() {
+        return MinorUnits.toBigDecimal(cents);
     }
 }
@@ -0,0 +1,30 @@
+package core.project.library.domain.value_objects;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Conversions of money amounts to and from cents, the only place where amounts are rounded.
+ */
+final class MinorUnits {
+
+    private static final int SCALE = 2;
+
+    private MinorUnits() {}
+
+    static long of(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    static long of(double amount) {
+        return of(BigDecimal.valueOf(amount));
+    }
+
+    static BigDecimal toBigDecimal(long cents) {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    static double toDouble(long cents) {
+        return cents / 100.0;
+    }
+}
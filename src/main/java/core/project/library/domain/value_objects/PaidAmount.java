@@ -1,17 +1,39 @@
 package core.project.library.domain.value_objects;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import core.project.library.infrastructure.exceptions.NegativeValueException;
 import core.project.library.infrastructure.exceptions.NullValueException;
-import jakarta.validation.constraints.NotNull;
 
-public record PaidAmount(@NotNull Double paidAmount) {
+import java.math.BigDecimal;
+
+public record PaidAmount(@JsonIgnore long cents) {
 
     public PaidAmount {
+        if (cents < 0) {
+            throw new NegativeValueException("Price can`t be smaller than 0.");
+        }
+    }
+
+    @JsonCreator
+    public static PaidAmount of(@JsonProperty("paidAmount") BigDecimal paidAmount) {
         if (paidAmount == null) {
             throw new NullValueException("Total price can`t be null");
         }
-        if (paidAmount < 0.0) {
-            throw new NegativeValueException("Price can`t be smaller than 0.");
-        }
+        return new PaidAmount(MinorUnits.of(paidAmount));
+    }
+
+    public static PaidAmount of(double paidAmount) {
+        return new PaidAmount(MinorUnits.of(paidAmount));
+    }
+
+    @JsonProperty("paidAmount")
+    public double paidAmount() {
+        return MinorUnits.toDouble(cents);
+    }
+
+    public BigDecimal toBigDecimal() {
+        return MinorUnits.toBigDecimal(cents);
     }
 }
@@ -1,19 +1,49 @@
 package core.project.library.domain.value_objects;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import core.project.library.infrastructure.exceptions.NegativeValueException;
 import core.project.library.infrastructure.exceptions.NullValueException;
-import jakarta.validation.constraints.NotNull;
 
-import java.util.Objects;
+import java.math.BigDecimal;
 
-public record Price(@NotNull Double price) {
+/**
+ * Amount in cents, in JSON it is still a decimal number under "price".
+ */
+public record Price(@JsonIgnore long cents) {
 
     public Price {
-        if (Objects.isNull(price)) {
-            throw new NullValueException("Price can`t be null");
-        }
-        if (price < 0.0) {
+        if (cents < 0) {
             throw new NegativeValueException("Price can`t be negative");
         }
     }
+
+    @JsonCreator
+    public static Price of(@JsonProperty("price") BigDecimal price) {
+        if (price == null) {
+            throw new NullValueException("Price can`t be null");
+        }
+        return new Price(MinorUnits.of(price));
+    }
+
+    public static Price of(double price) {
+        return new Price(MinorUnits.of(price));
+    }
+
+    @JsonProperty("price")
+    public double price() {
+        return MinorUnits.toDouble(cents);
+    }
+
+    public BigDecimal toBigDecimal() {
+        return MinorUnits.toBigDecimal(cents);
+    }
+
+    /**
+     * @return price of the copies in cents.
+     */
+    public long times(int copies) {
+        return Math.multiplyExact(cents, copies);
+    }
 }
@@ -1,17 +1,42 @@
 package core.project.library.domain.value_objects;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import core.project.library.infrastructure.exceptions.NegativeValueException;
 import core.project.library.infrastructure.exceptions.NullValueException;
-import jakarta.validation.constraints.NotNull;
 
-public record TotalPrice(@NotNull Double totalPrice) {
+import java.math.BigDecimal;
+
+/**
+ * Sum of the order lines in cents, computed without rounding.
+ */
+public record TotalPrice(@JsonIgnore long cents) {
 
     public TotalPrice {
+        if (cents < 0) {
+            throw new NegativeValueException("Price can`t be smaller than 0.");
+        }
+    }
+
+    @JsonCreator
+    public static TotalPrice of(@JsonProperty("totalPrice") BigDecimal totalPrice) {
         if (totalPrice == null) {
             throw new NullValueException("Total price can`t be null");
         }
-        if (totalPrice < 0.0) {
-            throw new NegativeValueException("Price can`t be smaller than 0.");
-        }
+        return new TotalPrice(MinorUnits.of(totalPrice));
+    }
+
+    public static TotalPrice of(double totalPrice) {
+        return new TotalPrice(MinorUnits.of(totalPrice));
+    }
+
+    @JsonProperty("totalPrice")
+    public double totalPrice() {
+        return MinorUnits.toDouble(cents);
+    }
+
+    public BigDecimal toBigDecimal() {
+        return MinorUnits.toBigDecimal(cents);
     }
 }
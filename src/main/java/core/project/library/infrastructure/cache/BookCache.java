@@ -0,0 +1,145 @@
+package core.project.library.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import core.project.library.domain.entities.Book;
+import core.project.library.domain.value_objects.ISBN;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Bounded read-through cache of books keyed by id, with a secondary ISBN -> id index.
+ * Writers evict after their transaction commits. A load that overlaps with an eviction is not cached,
+ * so a hit is never older than the last local write.
+ */
+@Component
+public class BookCache {
+
+    private final Cache<UUID, Book> booksById;
+
+    private final Cache<String, UUID> bookIdsByIsbn;
+
+    /**Incremented on every eviction, a load that started before an eviction must not populate the cache.*/
+    private long generation;
+
+    public BookCache(MeterRegistry meterRegistry,
+                     @Value("${library.book.cache.maximum-size:10000}") long maximumSize,
+                     @Value("${library.book.cache.time-to-live:PT10M}") Duration timeToLive) {
+        this.booksById = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build();
+
+        this.bookIdsByIsbn = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, booksById, "books.byId");
+        CaffeineCacheMetrics.monitor(meterRegistry, bookIdsByIsbn, "books.byIsbn");
+    }
+
+    public Optional<Book> findById(UUID bookId, Supplier<Optional<Book>> loader) {
+        Book cachedBook = booksById.getIfPresent(bookId);
+        if (cachedBook != null) {
+            return Optional.of(cachedBook);
+        }
+
+        return loadAndCache(loader);
+    }
+
+    public Optional<Book> findByISBN(ISBN isbn, Supplier<Optional<Book>> loader) {
+        UUID bookId = bookIdsByIsbn.getIfPresent(isbn.isbn());
+        if (bookId != null) {
+            Book cachedBook = booksById.getIfPresent(bookId);
+            if (cachedBook != null) {
+                return Optional.of(cachedBook);
+            }
+        }
+
+        return loadAndCache(loader);
+    }
+
+    /**
+     * Cached books are taken as is, all the missing ones are handed to the loader at once.
+     */
+    public Map<UUID, Book> findAllById(Collection<UUID> bookIds, Function<List<UUID>, List<Book>> loader) {
+        Map<UUID, Book> books = new HashMap<>();
+        List<UUID> missingBookIds = new ArrayList<>();
+
+        for (UUID bookId : bookIds) {
+            Book cachedBook = booksById.getIfPresent(bookId);
+            if (cachedBook != null) {
+                books.put(bookId, cachedBook);
+            } else {
+                missingBookIds.add(bookId);
+            }
+        }
+
+        if (!missingBookIds.isEmpty()) {
+            long loadGeneration;
+            synchronized (this) {
+                loadGeneration = generation;
+            }
+
+            List<Book> loadedBooks = loader.apply(missingBookIds);
+
+            synchronized (this) {
+                for (Book book : loadedBooks) {
+                    books.put(book.getId(), book);
+                    if (loadGeneration == generation) {
+                        booksById.put(book.getId(), book);
+                        bookIdsByIsbn.put(book.getIsbn().isbn(), book.getId());
+                    }
+                }
+            }
+        }
+
+        return books;
+    }
+
+    public synchronized void evict(Book book) {
+        generation++;
+        booksById.invalidate(book.getId());
+        bookIdsByIsbn.invalidate(book.getIsbn().isbn());
+    }
+
+    public synchronized void evict(Collection<UUID> bookIds) {
+        generation++;
+        for (UUID bookId : bookIds) {
+            Book cachedBook = booksById.getIfPresent(bookId);
+            if (cachedBook != null) {
+                bookIdsByIsbn.invalidate(cachedBook.getIsbn().isbn());
+            }
+        }
+        booksById.invalidateAll(bookIds);
+    }
+
+    private Optional<Book> loadAndCache(Supplier<Optional<Book>> loader) {
+        long loadGeneration;
+        synchronized (this) {
+            loadGeneration = generation;
+        }
+
+        Optional<Book> loadedBook = loader.get();
+
+        loadedBook.ifPresent(book -> {
+            synchronized (this) {
+                if (loadGeneration == generation) {
+                    booksById.put(book.getId(), book);
+                    bookIdsByIsbn.put(book.getIsbn().isbn(), book.getId());
+                }
+            }
+        });
+        return loadedBook;
+    }
+}
@@ -0,0 +1,7 @@
+package core.project.library.infrastructure.exceptions;
+
+public class DuplicateIdempotencyKeyException extends RuntimeException {
+    public DuplicateIdempotencyKeyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package core.project.library.infrastructure.exceptions;
+
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
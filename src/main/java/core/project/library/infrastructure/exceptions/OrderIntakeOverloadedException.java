@@ -0,0 +1,7 @@
+package core.project.library.infrastructure.exceptions;
+
+public class OrderIntakeOverloadedException extends RuntimeException {
+    public OrderIntakeOverloadedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package core.project.library.infrastructure.exceptions;
+
+public class StockHoldException extends RuntimeException {
+    public StockHoldException(String message) {
+        super(message);
+    }
+}
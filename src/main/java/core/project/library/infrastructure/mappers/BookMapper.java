@@ -2,7 +2,11 @@ package core.project.library.infrastructure.mappers;
 
 import core.project.library.application.model.BookDTO;
 import core.project.library.application.model.BookModel;
+import core.project.library.application.model.BookSummaryModel;
+import core.project.library.application.model.TopSellerModel;
 import core.project.library.domain.entities.Book;
+import core.project.library.infrastructure.repository.BookRepository;
+import core.project.library.infrastructure.repository.BookSalesRepository;
 import org.mapstruct.Mapper;
 
 import java.util.List;
@@ -17,4 +21,12 @@ public interface BookMapper {
     List<BookDTO> listOfDTO(List<Book> books);
 
     List<BookModel> listOfModel(List<Book> books);
+
+    BookSummaryModel toSummaryModel(BookRepository.BookSummary bookSummary);
+
+    List<BookSummaryModel> listOfSummaryModel(List<BookRepository.BookSummary> bookSummaries);
+
+    TopSellerModel toTopSellerModel(BookSalesRepository.TopSeller topSeller);
+
+    List<TopSellerModel> listOfTopSellerModel(List<BookSalesRepository.TopSeller> topSellers);
 }
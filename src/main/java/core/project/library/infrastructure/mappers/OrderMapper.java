@@ -1,8 +1,13 @@
 package core.project.library.infrastructure.mappers;
 
 import core.project.library.application.model.OrderDTO;
+import core.project.library.application.model.OrderHistoryModel;
+import core.project.library.application.model.OrderLineModel;
 import core.project.library.application.model.OrderModel;
+import core.project.library.application.model.OrderSummaryLineModel;
+import core.project.library.application.model.OrderSummaryModel;
 import core.project.library.domain.entities.Order;
+import core.project.library.infrastructure.repository.OrderRepository;
 import org.mapstruct.Mapper;
 
 import java.util.List;
@@ -17,4 +22,16 @@ public interface OrderMapper {
     List<OrderDTO> listOfDTO(List<Order> orders);
 
     List<OrderModel> listOfModel(List<Order> orders);
+
+    OrderLineModel toLineModel(OrderRepository.OrderLine orderLine);
+
+    OrderHistoryModel toHistoryModel(OrderRepository.OrderHistory orderHistory);
+
+    List<OrderHistoryModel> listOfHistoryModel(List<OrderRepository.OrderHistory> orderHistory);
+
+    OrderSummaryLineModel toSummaryLineModel(OrderRepository.OrderSummaryLine orderSummaryLine);
+
+    OrderSummaryModel toSummaryModel(OrderRepository.OrderSummary orderSummary);
+
+    List<OrderSummaryModel> listOfSummaryModel(List<OrderRepository.OrderSummary> orderSummaries);
 }
@@ -0,0 +1,164 @@
+package core.project.library.infrastructure.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plan reuse of prepared statements as counted by the PostgreSQL server.
+ * pg_stat_statements counts executions (calls) and plannings (plans) per normalized query,
+ * a statement whose plan is reused is executed without being planned again.
+ * <p>
+ * The counters are sampled periodically, the gauges show the share of executions since the previous sample
+ * that reused a plan, overall and for the most executed queries.
+ * Nothing is published if the extension is not installed or pg_stat_statements.track_planning is off,
+ * because plans are not counted then.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "spring.datasource.driver-class-name", havingValue = "org.postgresql.Driver")
+public class StatementPlanMetrics {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final MeterRegistry meterRegistry;
+
+    private final int topQueries;
+
+    private final MultiGauge queryPlanReuseRatios;
+
+    private volatile boolean enabled;
+
+    private volatile double planReuseRatio = Double.NaN;
+
+    private StatementCounters previousTotals;
+
+    private Map<Long, StatementCounters> previousCountersByQueryId = Map.of();
+
+    private record StatementCounters(long calls, long plans) {
+
+        /**
+         * @return share of the calls since the previous counters that reused a plan, NaN if there were none.
+         */
+        double planReuseRatioSince(StatementCounters previous) {
+            long newCalls = calls - previous.calls();
+            long newPlans = plans - previous.plans();
+            if (newCalls <= 0 || newPlans < 0) {
+                return Double.NaN;
+            }
+            return Math.max(0.0, 1.0 - (double) newPlans / newCalls);
+        }
+    }
+
+    private record QueryCounters(long queryId, String query, StatementCounters counters) {}
+
+    public StatementPlanMetrics(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry,
+                                @Value("${library.jdbc.plan-metrics.top-queries:20}") int topQueries) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.meterRegistry = meterRegistry;
+        this.topQueries = topQueries;
+        this.queryPlanReuseRatios = MultiGauge.builder("library.jdbc.query.plan.reuse.ratio")
+                .description("Share of executions of the query since the previous sample that reused a server-side plan")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        try {
+            String trackPlanning = jdbcTemplate.queryForObject(
+                    "SELECT current_setting('pg_stat_statements.track_planning', true)", String.class
+            );
+            jdbcTemplate.queryForObject(SQL_FOR_TOTALS, (rs, _) -> rs.getLong("calls"));
+
+            if (!"on".equals(trackPlanning)) {
+                log.warn("pg_stat_statements.track_planning is off, plan reuse of statements is not measured.");
+                return;
+            }
+        } catch (DataAccessException e) {
+            log.warn("pg_stat_statements is not available, plan reuse of statements is not measured: {}", e.getMessage());
+            return;
+        }
+
+        Gauge.builder("library.jdbc.plan.reuse.ratio", this, metrics -> metrics.planReuseRatio)
+                .description("Share of statement executions since the previous sample that reused a server-side plan")
+                .register(meterRegistry);
+        enabled = true;
+        sample();
+    }
+
+    @Scheduled(fixedDelayString = "${library.jdbc.plan-metrics.sample-interval:PT30S}")
+    public synchronized void sample() {
+        if (!enabled) {
+            return;
+        }
+
+        StatementCounters totals = jdbcTemplate.queryForObject(SQL_FOR_TOTALS,
+                (rs, _) -> new StatementCounters(rs.getLong("calls"), rs.getLong("plans"))
+        );
+        List<QueryCounters> queries = jdbcTemplate.query(SQL_FOR_TOP_QUERIES,
+                (rs, _) -> new QueryCounters(
+                        rs.getLong("queryid"),
+                        rs.getString("query"),
+                        new StatementCounters(rs.getLong("calls"), rs.getLong("plans"))
+                ),
+                topQueries
+        );
+
+        if (previousTotals != null) {
+            planReuseRatio = totals.planReuseRatioSince(previousTotals);
+        }
+        previousTotals = totals;
+
+        List<MultiGauge.Row<?>> rows = new ArrayList<>();
+        Map<Long, StatementCounters> countersByQueryId = new HashMap<>();
+        for (QueryCounters query : queries) {
+            countersByQueryId.put(query.queryId(), query.counters());
+
+            StatementCounters previous = previousCountersByQueryId.get(query.queryId());
+            if (previous != null) {
+                rows.add(MultiGauge.Row.of(
+                        Tags.of("queryid", Long.toString(query.queryId()), "query", abbreviate(query.query())),
+                        query.counters().planReuseRatioSince(previous)
+                ));
+            }
+        }
+        previousCountersByQueryId = countersByQueryId;
+        queryPlanReuseRatios.register(rows, true);
+    }
+
+    private static String abbreviate(String query) {
+        String singleLine = query.replaceAll("\\s+", " ").strip();
+        return singleLine.length() <= 100 ? singleLine : singleLine.substring(0, 100);
+    }
+
+    private static final String SQL_FOR_TOTALS = """
+            SELECT COALESCE(SUM(calls), 0) AS calls, COALESCE(SUM(plans), 0) AS plans
+            FROM pg_stat_statements
+            WHERE dbid = (SELECT oid FROM pg_database WHERE datname = current_database())
+            """;
+
+    private static final String SQL_FOR_TOP_QUERIES = """
+            SELECT queryid, query, SUM(calls) AS calls, SUM(plans) AS plans
+            FROM pg_stat_statements
+            WHERE dbid = (SELECT oid FROM pg_database WHERE datname = current_database())
+            AND queryid IS NOT NULL
+            GROUP BY queryid, query
+            ORDER BY calls DESC
+            LIMIT ?
+            """;
+}
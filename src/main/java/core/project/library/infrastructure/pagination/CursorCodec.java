@@ -0,0 +1,51 @@
+package core.project.library.infrastructure.pagination;
+
+import core.project.library.infrastructure.exceptions.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+import java.util.function.BiFunction;
+
+/**
+ * Shared token format of the cursors: url-safe base64 of the sort position and the id of the last row,
+ * separated by "|". Any malformed token is rejected with {@link InvalidCursorException}.
+ */
+final class CursorCodec {
+
+    private static final String SEPARATOR = "|";
+
+    private CursorCodec() {}
+
+    static String encode(String position, UUID id) {
+        String rawCursor = position + SEPARATOR + id;
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(rawCursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param cursorFactory builds the cursor from the raw position and the id, may throw on an unparsable position.
+     */
+    static <T> T decode(String token, BiFunction<String, UUID, T> cursorFactory) {
+        if (token == null || token.isBlank()) {
+            throw new InvalidCursorException("Cursor can`t be blank.");
+        }
+
+        try {
+            String rawCursor = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = rawCursor.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new InvalidCursorException("Invalid cursor.");
+            }
+
+            return cursorFactory.apply(
+                    rawCursor.substring(0, separator),
+                    UUID.fromString(rawCursor.substring(separator + 1))
+            );
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidCursorException("Invalid cursor.");
+        }
+    }
+}
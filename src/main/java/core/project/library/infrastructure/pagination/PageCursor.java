@@ -0,0 +1,25 @@
+package core.project.library.infrastructure.pagination;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Opaque continuation token for keyset pagination.
+ * Holds the (creation_date, id) pair of the last row of a page, the next page starts strictly after it.
+ */
+public record PageCursor(LocalDateTime creationDate, UUID id) {
+
+    public PageCursor {
+        Objects.requireNonNull(creationDate);
+        Objects.requireNonNull(id);
+    }
+
+    public String encode() {
+        return CursorCodec.encode(creationDate.toString(), id);
+    }
+
+    public static PageCursor decode(String token) {
+        return CursorCodec.decode(token, (creationDate, id) -> new PageCursor(LocalDateTime.parse(creationDate), id));
+    }
+}
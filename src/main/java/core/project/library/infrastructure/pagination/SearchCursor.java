@@ -0,0 +1,23 @@
+package core.project.library.infrastructure.pagination;
+
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Opaque continuation token for ranked search results.
+ * Holds the (rank, id) pair of the last row of a page, results are ordered by rank descending, then id.
+ */
+public record SearchCursor(float rank, UUID id) {
+
+    public SearchCursor {
+        Objects.requireNonNull(id);
+    }
+
+    public String encode() {
+        return CursorCodec.encode(Float.toString(rank), id);
+    }
+
+    public static SearchCursor decode(String token) {
+        return CursorCodec.decode(token, (rank, id) -> new SearchCursor(Float.parseFloat(rank), id));
+    }
+}
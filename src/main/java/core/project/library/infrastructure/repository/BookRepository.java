@@ -5,8 +5,12 @@ import core.project.library.domain.entities.Book;
 import core.project.library.domain.entities.Publisher;
 import core.project.library.domain.events.Events;
 import core.project.library.domain.value_objects.*;
+import core.project.library.infrastructure.pagination.PageCursor;
+import core.project.library.infrastructure.pagination.SearchCursor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.PreparedStatementCreator;
 import org.springframework.stereotype.Repository;
@@ -16,6 +20,7 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.util.*;
+import java.util.function.BiConsumer;
 
 @Slf4j
 @Repository
@@ -23,8 +28,15 @@ public class BookRepository {
 
     private final JdbcTemplate jdbcTemplate;
 
-    public BookRepository(JdbcTemplate jdbcTemplate) {
+    /**Number of rows the driver pulls per round trip, results are streamed in chunks of this size.*/
+    private final int fetchSize;
+
+    /**Resolved on first use, tsvector search is available on PostgreSQL only.*/
+    private volatile Boolean fullTextSearchSupported;
+
+    public BookRepository(JdbcTemplate jdbcTemplate, @Value("${library.book.fetch-size:100}") int fetchSize) {
         this.jdbcTemplate = jdbcTemplate;
+        this.fetchSize = fetchSize;
     }
 
     public Integer count() {
@@ -45,47 +57,134 @@ public class BookRepository {
         }
     }
 
+    @Transactional(readOnly = true)
     public Optional<Book> findById(UUID bookId) {
         try {
-            String sqlQuery = String.format(SQL_FOR_GET_BOOK_BY_ID, bookId);
-
-            return Optional.ofNullable(
-                    jdbcTemplate.query(preparedStatementFactory(sqlQuery), this::extractDataToBook)
-            );
+            return Optional.ofNullable(jdbcTemplate.query(
+                    preparedStatementFactory(SQL_FOR_GET_BOOK_BY_ID, bookId.toString()), this::extractDataToBook
+            ));
         } catch (EmptyResultDataAccessException e) {
             log.info("BookRepository findById(...): {}", e.getMessage());
             return Optional.empty();
         }
     }
 
+    @Transactional(readOnly = true)
     public Optional<Book> findByISBN(ISBN isbn) {
         try {
-            String sqlQuery = String.format(SQL_FOR_GET_BOOK_BY_ISBN, isbn.isbn());
-
-            return Optional.ofNullable(
-                    jdbcTemplate.query(preparedStatementFactory(sqlQuery), this::extractDataToBook)
-            );
+            return Optional.ofNullable(jdbcTemplate.query(
+                    preparedStatementFactory(SQL_FOR_GET_BOOK_BY_ISBN, isbn.isbn()), this::extractDataToBook
+            ));
         } catch (EmptyResultDataAccessException e) {
             log.info("BookRepository findByISBN(...): {}", e.getMessage());
             return Optional.empty();
         }
     }
 
+    /**
+     * Loads all requested books with one query and one grouping pass,
+     * ids without a book are simply absent from the result.
+     */
+    @Transactional(readOnly = true)
+    public List<Book> findAllById(List<UUID> bookIds) {
+        if (bookIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        return jdbcTemplate.query(
+                anyOfBookIdsStatementFactory(SQL_FOR_GET_BOOKS_BY_IDS, bookIds), this::extractDataToListOfBooks
+        );
+    }
+
+    @Transactional(readOnly = true)
     public List<Book> listOfBooks(
             Integer pageNumber, Integer pageSize, String title, String category
     ) {
         try {
             final int limit = buildLimit(pageSize);
             final int offSet = buildOffSet(limit, pageNumber);
-            String sqlQuery = buildQueryForListOfBooks(limit, offSet, title, category);
-
-            return jdbcTemplate.query(preparedStatementFactory(sqlQuery), this::extractDataToListOfBooks);
+            List<UUID> pageOfBookIds = jdbcTemplate.query(
+                    offsetStatementFactory(SQL_FOR_PAGE_OF_BOOK_IDS, limit, offSet, title, category),
+                    (rs, _) -> currentBookId(rs)
+            );
+            return loadBooks(pageOfBookIds);
         } catch (EmptyResultDataAccessException e) {
             log.info("BookRepository listOfBooks(...): {}", e.getMessage());
             return Collections.emptyList();
         }
     }
 
+    public record BookSummary(UUID id, Title title, ISBN isbn, Price price, QuantityOnHand quantityOnHand) {}
+
+    @Transactional(readOnly = true)
+    public List<BookSummary> listOfBookSummaries(
+            Integer pageNumber, Integer pageSize, String title, String category
+    ) {
+        final int limit = buildLimit(pageSize);
+        final int offSet = buildOffSet(limit, pageNumber);
+
+        return jdbcTemplate.query(
+                offsetStatementFactory(SQL_FOR_PAGE_OF_BOOK_SUMMARIES, limit, offSet, title, category),
+                (rs, _) -> new BookSummary(
+                        currentBookId(rs),
+                        new Title(rs.getString("book_title")),
+                        new ISBN(rs.getString("book_isbn")),
+                        Price.of(rs.getBigDecimal("book_price")),
+                        new QuantityOnHand(rs.getInt("book_quantity"))
+                )
+        );
+    }
+
+    @Transactional(readOnly = true)
+    public List<Book> listOfBooks(
+            PageCursor cursor, Integer pageSize, String title, String category
+    ) {
+        try {
+            final int limit = buildLimit(pageSize);
+
+            List<UUID> pageOfBookIds = jdbcTemplate.query(
+                    keysetStatementFactory(cursor, limit, title, category), (rs, _) -> currentBookId(rs)
+            );
+            return loadBooks(pageOfBookIds);
+        } catch (EmptyResultDataAccessException e) {
+            log.info("BookRepository listOfBooks(...) by cursor: {}", e.getMessage());
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Streams the titles of all books on sale, rows are fetched in chunks of the configured fetch size.
+     */
+    @Transactional(readOnly = true)
+    public void forEachTitleOnSale(BiConsumer<UUID, Title> consumer) {
+        jdbcTemplate.query(preparedStatementFactory(SQL_FOR_TITLES_ON_SALE), rs -> {
+            consumer.accept(currentBookId(rs), new Title(rs.getString("book_title")));
+        });
+    }
+
+    public record SearchPage(List<Book> books, SearchCursor nextCursor) {}
+
+    /**
+     * Ranked search over title, description and author names, keyset-paginated by (rank, id).
+     * PostgreSQL matches against the GIN-indexed search_vector,
+     * other databases (H2 for offline tests) fall back to case-insensitive LIKE matching.
+     */
+    @Transactional(readOnly = true)
+    public SearchPage search(String query, SearchCursor cursor, Integer pageSize) {
+        final int limit = buildLimit(pageSize);
+        PreparedStatementCreator statement = isFullTextSearchSupported()
+                ? fullTextSearchStatementFactory(query, cursor, limit)
+                : fallbackSearchStatementFactory(query, cursor, limit);
+
+        List<SearchCursor> rankedBookIds = jdbcTemplate.query(
+                statement, (rs, _) -> new SearchCursor(rs.getFloat("rank"), currentBookId(rs))
+        );
+
+        List<Book> books = loadBooks(rankedBookIds.stream().map(SearchCursor::id).toList());
+        SearchCursor nextCursor = rankedBookIds.size() < limit ? null : rankedBookIds.getLast();
+        return new SearchPage(books, nextCursor);
+    }
+
     @Transactional
     public void completelySaveBook(Book book) {
         jdbcTemplate.update("""
@@ -98,7 +197,7 @@ public class BookRepository {
                 book.getTitle().title(),
                 book.getDescription().description(),
                 book.getIsbn().isbn(),
-                book.getPrice().price(),
+                book.getPrice().toBigDecimal(),
                 book.getQuantityOnHand().quantityOnHand(),
                 book.getCategory().toString(),
                 book.getEvents().creation_date(),
@@ -114,6 +213,9 @@ public class BookRepository {
                     author.getId().toString()
             );
         }
+
+        refreshSearchVector(book.getId());
+        changeCategoryFacet(book.getCategory(), 1);
     }
 
     @Transactional
@@ -126,23 +228,75 @@ public class BookRepository {
             Where id = ?
             """,
                 foundBook.getDescription().description(),
-                foundBook.getPrice().price(),
+                foundBook.getPrice().toBigDecimal(),
                 foundBook.getQuantityOnHand().quantityOnHand(),
                 foundBook.getId().toString()
         );
+
+        refreshSearchVector(foundBook.getId());
     }
 
-    public void withdrawBookFromTheSale(Book book) {
-        jdbcTemplate.update("""
+    /**
+     * Withdraws the book only if it is still on sale, so a repeated withdrawal does not decrement its category facet twice.
+     * @return true if this call has withdrawn the book.
+     */
+    @Transactional
+    public boolean withdrawBookFromTheSale(Book book) {
+        int withdrawn = jdbcTemplate.update("""
             Update Books Set
-                  withdrawn_from_sale = ?
-            Where id = ?
-            """, book.getWithdrawnFromSale(), book.getId().toString()
+                  withdrawn_from_sale = true
+            Where id = ? And withdrawn_from_sale = false
+            """, book.getId().toString()
         );
+
+        if (withdrawn == 1) {
+            changeCategoryFacet(book.getCategory(), -1);
+        }
+        return withdrawn == 1;
+    }
+
+    public Map<Category, Integer> categoryFacets() {
+        Map<Category, Integer> facets = new EnumMap<>(Category.class);
+        jdbcTemplate.query(SQL_FOR_CATEGORY_FACETS, rs -> {
+            facets.put(Category.valueOf(rs.getString("category")), rs.getInt("on_sale_count"));
+        });
+        return facets;
+    }
+
+    /**
+     * Recounts every facet from Books, for recovery after the counters have drifted (e.g. manual edits of the table).
+     */
+    @Transactional
+    public void rebuildCategoryFacets() {
+        for (Category category : Category.values()) {
+            int updated = jdbcTemplate.update(
+                    "Update Category_Facets Set on_sale_count = 0 Where category = ?", category.toString()
+            );
+            if (updated == 0) {
+                jdbcTemplate.update(
+                        "Insert into Category_Facets (category, on_sale_count) values (?, 0)", category.toString()
+                );
+            }
+        }
+
+        jdbcTemplate.update("""
+            Update Category_Facets f Set
+                  on_sale_count = (
+                      Select COUNT(*) From Books b
+                      Where b.category = f.category And b.withdrawn_from_sale = false
+                  )
+            """);
     }
 
     /**Below this are the auxiliary methods & fields.*/
 
+    private void changeCategoryFacet(Category category, int delta) {
+        jdbcTemplate.update(
+                "Update Category_Facets Set on_sale_count = on_sale_count + ? Where category = ?",
+                delta, category.toString()
+        );
+    }
+
     public static int buildLimit(Integer pageSize) {
         int limit;
         if (pageSize > 0 && pageSize <= 25) {
@@ -163,26 +317,283 @@ public class BookRepository {
         return offSet;
     }
 
-    private String buildQueryForListOfBooks(int limit, int offSet, String title, String category) {
-        String limitAndOffset = "LIMIT %s OFFSET %s";
-        StringBuilder sqlQuery = new StringBuilder(
-                SQL_FOR_GET_BOOK_BY_ID.replace("WHERE b.id = '%s'", "")
-        );
-
+    /**
+     * One fixed statement text per filter combination, so every page request reuses a cached plan.
+     */
+    private PreparedStatementCreator offsetStatementFactory(
+            String selectFromBooks, int limit, int offSet, String title, String category
+    ) {
         if (title != null && category != null) {
-            sqlQuery.append("WHERE b.title = '%s' AND b.category = '%s'").append(limitAndOffset);
-            return String.format(sqlQuery.toString(), title, category, limit, offSet);
+            return preparedStatementFactory(
+                    selectFromBooks + WHERE_TITLE_AND_CATEGORY + ORDER_LIMIT_AND_OFFSET, title, category, limit, offSet
+            );
         } else if (title != null) {
-            sqlQuery.append("WHERE b.title = '%s'").append(limitAndOffset);
-            return String.format(sqlQuery.toString(), title, limit, offSet);
+            return preparedStatementFactory(selectFromBooks + WHERE_TITLE + ORDER_LIMIT_AND_OFFSET, title, limit, offSet);
         } else if (category != null) {
-            sqlQuery.append("WHERE b.category = '%s'").append(limitAndOffset);
-            return String.format(sqlQuery.toString(), category, limit, offSet);
+            return preparedStatementFactory(
+                    selectFromBooks + WHERE_CATEGORY + ORDER_LIMIT_AND_OFFSET, category, limit, offSet
+            );
+        }
+
+        return preparedStatementFactory(selectFromBooks + ORDER_LIMIT_AND_OFFSET, limit, offSet);
+    }
+
+    /**
+     * Seeks past the cursor on the (creation_date, id) index instead of skipping rows with OFFSET.
+     * The statement text depends only on which filters are present, never on their values.
+     */
+    private PreparedStatementCreator keysetStatementFactory(
+            PageCursor cursor, int limit, String title, String category
+    ) {
+        StringBuilder sqlQuery = new StringBuilder(SQL_FOR_PAGE_OF_BOOK_IDS).append("WHERE 1 = 1 ");
+        List<Object> params = new ArrayList<>();
+
+        if (cursor != null) {
+            sqlQuery.append("AND (b.creation_date, b.id) > (?, ?) ");
+            params.add(Timestamp.valueOf(cursor.creationDate()));
+            params.add(cursor.id().toString());
+        }
+        if (title != null) {
+            sqlQuery.append("AND b.title = ? ");
+            params.add(title);
+        }
+        if (category != null) {
+            sqlQuery.append("AND b.category = ? ");
+            params.add(category);
         }
+        sqlQuery.append("ORDER BY b.creation_date, b.id LIMIT ?");
+        params.add(limit);
 
-        return String.format(sqlQuery.append(limitAndOffset).toString(), limit, offSet);
+        return preparedStatementFactory(sqlQuery.toString(), params.toArray());
+    }
+
+    private PreparedStatementCreator fullTextSearchStatementFactory(String query, SearchCursor cursor, int limit) {
+        if (cursor == null) {
+            return preparedStatementFactory(SQL_FOR_FULL_TEXT_SEARCH + SEARCH_FIRST_PAGE, query, limit);
+        }
+
+        return preparedStatementFactory(
+                SQL_FOR_FULL_TEXT_SEARCH + SEARCH_PAGE_AFTER_CURSOR,
+                query, cursor.rank(), cursor.rank(), cursor.id().toString(), limit
+        );
+    }
+
+    private PreparedStatementCreator fallbackSearchStatementFactory(String query, SearchCursor cursor, int limit) {
+        String pattern = "%" + escapeLikeWildcards(query.toLowerCase()) + "%";
+        if (cursor == null) {
+            return preparedStatementFactory(
+                    SQL_FOR_FALLBACK_SEARCH + SEARCH_FIRST_PAGE, pattern, pattern, pattern, pattern, limit
+            );
+        }
+
+        return preparedStatementFactory(
+                SQL_FOR_FALLBACK_SEARCH + SEARCH_PAGE_AFTER_CURSOR,
+                pattern, pattern, pattern, pattern, cursor.rank(), cursor.rank(), cursor.id().toString(), limit
+        );
+    }
+
+    /**
+     * % and _ of the user query are matched literally, the LIKE predicates declare a backslash as their escape character.
+     */
+    private static String escapeLikeWildcards(String query) {
+        return query.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private void refreshSearchVector(UUID bookId) {
+        if (isFullTextSearchSupported()) {
+            jdbcTemplate.update(SQL_FOR_REFRESH_SEARCH_VECTOR, bookId.toString());
+        }
+    }
+
+    private boolean isFullTextSearchSupported() {
+        if (fullTextSearchSupported == null) {
+            fullTextSearchSupported = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                    "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())
+            );
+        }
+        return Boolean.TRUE.equals(fullTextSearchSupported);
+    }
+
+    /**
+     * Second and third phase of page loading: the page of ids is already selected,
+     * books with publishers and all their authors are fetched with one query each and assembled in memory.
+     * The result keeps the order of the given ids.
+     */
+    private List<Book> loadBooks(List<UUID> bookIds) {
+        if (bookIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Map<UUID, Author> authorsById = new HashMap<>();
+        Map<UUID, Set<Author>> authorsOfBooks = new HashMap<>();
+        jdbcTemplate.query(anyOfBookIdsStatementFactory(SQL_FOR_GET_AUTHORS_BY_BOOK_IDS, bookIds), rs -> {
+            UUID authorId = UUID.fromString(rs.getString("author_id"));
+            Author author = authorsById.get(authorId);
+            if (author == null) {
+                author = extractDataToAuthorOfBook(rs);
+                authorsById.put(authorId, author);
+            }
+            authorsOfBooks.computeIfAbsent(currentBookId(rs), _ -> new LinkedHashSet<>()).add(author);
+        });
+
+        Map<UUID, Publisher> publishersById = new HashMap<>();
+        Map<UUID, Book> booksById = new HashMap<>();
+        jdbcTemplate.query(anyOfBookIdsStatementFactory(SQL_FOR_GET_BOOKS_WITH_PUBLISHERS_BY_IDS, bookIds), rs -> {
+            UUID currentBookId = currentBookId(rs);
+            UUID publisherId = UUID.fromString(rs.getString("publisher_id"));
+            Publisher publisher = publishersById.get(publisherId);
+            if (publisher == null) {
+                publisher = extractDataToPublisherOfBook(rs);
+                publishersById.put(publisherId, publisher);
+            }
+            Set<Author> authors = authorsOfBooks.getOrDefault(currentBookId, new LinkedHashSet<>());
+
+            booksById.put(currentBookId, extractDataToBookRows(rs, currentBookId, publisher, authors).construct());
+        });
+
+        return bookIds.stream()
+                .map(booksById::get)
+                .filter(Objects::nonNull)
+                .toList();
     }
 
+    private PreparedStatementCreator anyOfBookIdsStatementFactory(String sqlQuery, List<UUID> bookIds) {
+        return connection -> {
+            var preparedStatement = preparedStatementFactory(sqlQuery).createPreparedStatement(connection);
+            preparedStatement.setArray(1, connection.createArrayOf(
+                    "varchar", bookIds.stream().map(UUID::toString).toArray()
+            ));
+            return preparedStatement;
+        };
+    }
+
+    public static final String SQL_FOR_PAGE_OF_BOOK_IDS = """
+                SELECT b.id AS book_id
+                FROM Books b
+                """;
+
+    /**Only Books columns, list screens showing summaries skip the Publishers and Authors joins entirely.*/
+    public static final String SQL_FOR_PAGE_OF_BOOK_SUMMARIES = """
+                SELECT
+                    b.id AS book_id,
+                    b.title AS book_title,
+                    b.isbn AS book_isbn,
+                    b.price AS book_price,
+                    b.quantity_on_hand AS book_quantity
+                FROM Books b
+                """;
+
+    private static final String WHERE_TITLE = "WHERE b.title = ? ";
+
+    private static final String WHERE_CATEGORY = "WHERE b.category = ? ";
+
+    private static final String WHERE_TITLE_AND_CATEGORY = "WHERE b.title = ? AND b.category = ? ";
+
+    private static final String ORDER_LIMIT_AND_OFFSET = "ORDER BY b.creation_date, b.id LIMIT ? OFFSET ?";
+
+    public static final String SQL_FOR_TITLES_ON_SALE = """
+                SELECT b.id AS book_id, b.title AS book_title
+                FROM Books b
+                WHERE b.withdrawn_from_sale = false
+                """;
+
+    public static final String SQL_FOR_CATEGORY_FACETS = """
+                SELECT f.category, f.on_sale_count
+                FROM Category_Facets f
+                """;
+
+    public static final String SQL_FOR_FULL_TEXT_SEARCH = """
+                SELECT ranked.book_id, ranked.rank FROM (
+                    SELECT b.id AS book_id, ts_rank(b.search_vector, tsq.query) AS rank
+                    FROM Books b, websearch_to_tsquery('english', ?) AS tsq(query)
+                    WHERE b.search_vector @@ tsq.query
+                ) ranked
+                """;
+
+    public static final String SQL_FOR_FALLBACK_SEARCH = """
+                SELECT ranked.book_id, ranked.rank FROM (
+                    SELECT b.id AS book_id,
+                           CAST(CASE WHEN LOWER(b.title) LIKE ? ESCAPE '\\' THEN 1.0 ELSE 0.5 END AS REAL) AS rank
+                    FROM Books b
+                    WHERE LOWER(b.title) LIKE ? ESCAPE '\\'
+                       OR LOWER(b.description) LIKE ? ESCAPE '\\'
+                       OR EXISTS (
+                            SELECT 1 FROM Book_Author ba
+                            INNER JOIN Authors a ON ba.author_id = a.id
+                            WHERE ba.book_id = b.id AND LOWER(a.first_name || ' ' || a.last_name) LIKE ? ESCAPE '\\'
+                       )
+                ) ranked
+                """;
+
+    private static final String SEARCH_FIRST_PAGE = """
+                ORDER BY ranked.rank DESC, ranked.book_id LIMIT ?
+                """;
+
+    private static final String SEARCH_PAGE_AFTER_CURSOR = """
+                WHERE ranked.rank < ? OR (ranked.rank = ? AND ranked.book_id > ?)
+                ORDER BY ranked.rank DESC, ranked.book_id LIMIT ?
+                """;
+
+    public static final String SQL_FOR_REFRESH_SEARCH_VECTOR = """
+                UPDATE Books b SET search_vector =
+                    setweight(to_tsvector('english', b.title), 'A') ||
+                    setweight(to_tsvector('english', b.description), 'B') ||
+                    setweight(to_tsvector('english', coalesce((
+                        SELECT string_agg(a.first_name || ' ' || a.last_name, ' ')
+                        FROM Book_Author ba
+                        INNER JOIN Authors a ON ba.author_id = a.id
+                        WHERE ba.book_id = b.id
+                    ), '')), 'C')
+                WHERE b.id = ?
+                """;
+
+    public static final String SQL_FOR_GET_BOOKS_WITH_PUBLISHERS_BY_IDS = """
+                SELECT
+                    b.id AS book_id,
+                    b.title AS book_title,
+                    b.description AS book_description,
+                    b.isbn AS book_isbn,
+                    b.price AS book_price,
+                    b.quantity_on_hand AS book_quantity,
+                    b.category AS book_category,
+                    b.withdrawn_from_sale AS withdrawn_from_sale,
+                    b.creation_date AS book_creation_date,
+                    b.last_modified_date AS book_last_modified_date,
+                
+                    p.id AS publisher_id,
+                    p.publisher_name AS publisher_name,
+                    p.state AS publisher_state,
+                    p.city AS publisher_city,
+                    p.street AS publisher_street,
+                    p.home AS publisher_home,
+                    p.phone AS publisher_phone,
+                    p.email AS publisher_email,
+                    p.creation_date AS publisher_creation_date,
+                    p.last_modified_date AS publisher_last_modified_date
+                FROM Books b
+                INNER JOIN Publishers p ON b.publisher_id = p.id
+                WHERE b.id = ANY(?)
+                """;
+
+    public static final String SQL_FOR_GET_AUTHORS_BY_BOOK_IDS = """
+                SELECT
+                    ba.book_id AS book_id,
+                
+                    a.id AS author_id,
+                    a.first_name AS author_first_name,
+                    a.last_name AS author_last_name,
+                    a.email AS author_email,
+                    a.state AS author_state,
+                    a.city AS author_city,
+                    a.street AS author_street,
+                    a.home AS author_home,
+                    a.creation_date AS author_creation_date,
+                    a.last_modified_date AS author_last_modified_date
+                FROM Book_Author ba
+                INNER JOIN Authors a ON ba.author_id = a.id
+                WHERE ba.book_id = ANY(?)
+                """;
+
     public static final String SQL_FOR_GET_BOOK_BY_ID = """
                 SELECT
                     b.id AS book_id,
@@ -221,40 +632,79 @@ public class BookRepository {
                 INNER JOIN Publishers p ON b.publisher_id = p.id
                 INNER JOIN Book_Author ba ON b.id = ba.book_id
                 INNER JOIN Authors a ON ba.author_id = a.id
-                WHERE b.id = '%s'
+                WHERE b.id = ?
                 """;
 
     public static final String SQL_FOR_GET_BOOK_BY_ISBN = SQL_FOR_GET_BOOK_BY_ID.replace(
-            "WHERE b.id = '%s'", "WHERE b.isbn = '%s'"
+            "WHERE b.id = ?", "WHERE b.isbn = ?"
     );
 
-    private PreparedStatementCreator preparedStatementFactory(String sqlQuery) {
-        return connection -> connection.prepareStatement(
-                sqlQuery, ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY
-        );
+    public static final String SQL_FOR_GET_BOOKS_BY_IDS = SQL_FOR_GET_BOOK_BY_ID.replace(
+            "WHERE b.id = ?", "WHERE b.id = ANY(?)\nORDER BY b.id"
+    );
+
+    /**
+     * Forward-only, read-only statements let the driver stream rows instead of buffering the whole result,
+     * PostgreSQL honors the fetch size only inside a transaction, hence the read-only transactions above.
+     */
+    private PreparedStatementCreator preparedStatementFactory(String sqlQuery, Object... params) {
+        return connection -> {
+            var preparedStatement = connection.prepareStatement(
+                    sqlQuery, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY
+            );
+            preparedStatement.setFetchSize(fetchSize);
+            for (int i = 0; i < params.length; i++) {
+                preparedStatement.setObject(i + 1, params[i]);
+            }
+            return preparedStatement;
+        };
     }
 
     public Book extractDataToBook(ResultSet rs) throws SQLException {
-        rs.first();
-        UUID currentBookId = currentBookId(rs);
-        Publisher publisher = extractDataToPublisherOfBook(rs);
-        Set<Author> authors = extractDataToListOfAuthorsOfBook(rs, currentBookId);
-
-        return extractDataAndCompletelyConstructTheBook(rs, currentBookId, publisher, authors);
+        List<Book> books = extractDataToListOfBooks(rs);
+        return books.isEmpty() ? null : books.getFirst();
     }
 
+    /**
+     * Single forward pass over joined book rows, rows of one book have to be consecutive.
+     * A book is constructed as soon as the first row of the next book or the end of the result is reached.
+     */
     public List<Book> extractDataToListOfBooks(ResultSet rs) throws SQLException {
-        rs.first();
         var listOfBooks = new ArrayList<Book>();
+        Map<UUID, Publisher> publishersById = new HashMap<>();
+        Map<UUID, Author> authorsById = new HashMap<>();
+        BookRows currentBook = null;
+
+        while (rs.next()) {
+            UUID bookId = currentBookId(rs);
+
+            if (currentBook == null || !currentBook.id().equals(bookId)) {
+                if (currentBook != null) {
+                    listOfBooks.add(currentBook.construct());
+                }
+
+                UUID publisherId = UUID.fromString(rs.getString("publisher_id"));
+                Publisher publisher = publishersById.get(publisherId);
+                if (publisher == null) {
+                    publisher = extractDataToPublisherOfBook(rs);
+                    publishersById.put(publisherId, publisher);
+                }
+
+                currentBook = extractDataToBookRows(rs, bookId, publisher, new LinkedHashSet<>());
+            }
+
+            UUID authorId = UUID.fromString(rs.getString("author_id"));
+            Author author = authorsById.get(authorId);
+            if (author == null) {
+                author = extractDataToAuthorOfBook(rs);
+                authorsById.put(authorId, author);
+            }
+            currentBook.authors().add(author);
+        }
 
-        do {
-            UUID currentBookId = currentBookId(rs);
-            Publisher publisher = extractDataToPublisherOfBook(rs);
-            Set<Author> authors = extractDataToListOfAuthorsOfBook(rs, currentBookId);
-            Book book = extractDataAndCompletelyConstructTheBook(rs, currentBookId, publisher, authors);
-            listOfBooks.add(book);
-        } while (rs.next());
-
+        if (currentBook != null) {
+            listOfBooks.add(currentBook.construct());
+        }
         return listOfBooks;
     }
 
@@ -285,38 +735,46 @@ public class BookRepository {
         );
     }
 
-    private Set<Author> extractDataToListOfAuthorsOfBook(ResultSet rs, UUID currentBookID) throws SQLException {
-        Set<Author> authors = new LinkedHashSet<>();
-        do {
-            Address address = new Address(
-                    rs.getString("author_state"),
-                    rs.getString("author_city"),
-                    rs.getString("author_street"),
-                    rs.getString("author_home")
-            );
-            Events events = new Events(
-                    rs.getObject("author_creation_date", Timestamp.class).toLocalDateTime(),
-                    rs.getObject("author_last_modified_date", Timestamp.class).toLocalDateTime()
-            );
+    private Author extractDataToAuthorOfBook(ResultSet rs) throws SQLException {
+        Address address = new Address(
+                rs.getString("author_state"),
+                rs.getString("author_city"),
+                rs.getString("author_street"),
+                rs.getString("author_home")
+        );
 
-            Author author = Author.create(
-                    UUID.fromString(rs.getString("id")),
-                    new FirstName(rs.getString("first_name")),
-                    new LastName(rs.getString("last_name")),
-                    new Email(rs.getString("email")),
-                    address,
-                    events
-            );
+        Events events = new Events(
+                rs.getObject("author_creation_date", Timestamp.class).toLocalDateTime(),
+                rs.getObject("author_last_modified_date", Timestamp.class).toLocalDateTime()
+        );
 
-            authors.add(author);
-        } while (
-                rs.next() && UUID.fromString(rs.getString("book_id")).equals(currentBookID)
+        return Author.create(
+                UUID.fromString(rs.getString("author_id")),
+                new FirstName(rs.getString("author_first_name")),
+                new LastName(rs.getString("author_last_name")),
+                new Email(rs.getString("author_email")),
+                address,
+                events
         );
-        rs.previous();
-        return authors;
     }
 
-    private Book extractDataAndCompletelyConstructTheBook(
+    /**
+     * Columns of a book collected while its rows are being read,
+     * the book itself is created once all of its authors are known.
+     */
+    private record BookRows(UUID id, Title title, Description description, ISBN isbn, Price price,
+                            QuantityOnHand quantityOnHand, Category category, Events events,
+                            Boolean withdrawnFromSale, Publisher publisher, Set<Author> authors) {
+
+        Book construct() {
+            return Book.create(
+                    id, title, description, isbn, price, quantityOnHand,
+                    category, events, withdrawnFromSale, publisher, authors
+            );
+        }
+    }
+
+    private BookRows extractDataToBookRows(
             ResultSet rs, UUID currentBookId, Publisher publisher, Set<Author> authors
     ) throws SQLException {
 
@@ -325,12 +783,12 @@ public class BookRepository {
                 rs.getObject("book_last_modified_date", Timestamp.class).toLocalDateTime()
         );
 
-        return Book.create(
+        return new BookRows(
                 currentBookId,
                 new Title(rs.getString("book_title")),
                 new Description(rs.getString("book_description")),
                 new ISBN(rs.getString("book_isbn")),
-                new Price(rs.getDouble("book_price")),
+                Price.of(rs.getBigDecimal("book_price")),
                 new QuantityOnHand(rs.getInt("book_quantity")),
                 Category.valueOf(rs.getString("book_category")),
                 events,
@@ -0,0 +1,146 @@
+package core.project.library.infrastructure.repository;
+
+import core.project.library.domain.value_objects.Category;
+import core.project.library.domain.value_objects.TotalPrice;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Daily sales rollup per book, kept up to date by the order writes in their own transactions,
+ * so top sellers are read from a few rows per day instead of scanning order lines.
+ */
+@Repository
+public class BookSalesRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile Boolean upsertSupported;
+
+    public BookSalesRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @param revenueCents revenue in cents, negative like the units when sales are taken back.
+     */
+    public record Sale(UUID bookId, LocalDate salesDate, Category category, int units, long revenueCents) {}
+
+    /**
+     * @param revenue exact sum of the stored revenue, never negative since sales are taken back on their own date.
+     */
+    public record TopSeller(UUID bookId, Category category, long units, TotalPrice revenue) {}
+
+    /**
+     * Adds the sales to the rollup, negative units and revenue take them back.
+     * Has to be called inside the transaction that writes the order lines.
+     */
+    public void recordSales(List<Sale> sales) {
+        if (sales.isEmpty()) {
+            return;
+        }
+
+        Map<String, Sale> salesOfBookDays = new TreeMap<>();
+        for (Sale sale : sales) {
+            salesOfBookDays.merge(sale.salesDate() + "|" + sale.bookId(), sale, (first, second) -> new Sale(
+                    first.bookId(), first.salesDate(), first.category(),
+                    first.units() + second.units(), first.revenueCents() + second.revenueCents()
+            ));
+        }
+
+        jdbcTemplate.batchUpdate(upsertStatement(), salesOfBookDays.values(), salesOfBookDays.size(), (ps, sale) -> {
+            ps.setDate(1, Date.valueOf(sale.salesDate()));
+            ps.setString(2, sale.bookId().toString());
+            ps.setString(3, sale.category().toString());
+            ps.setInt(4, sale.units());
+            ps.setBigDecimal(5, BigDecimal.valueOf(sale.revenueCents(), 2));
+        });
+    }
+
+    /**
+     * @param category null for all categories.
+     */
+    public List<TopSeller> topSellers(LocalDate from, LocalDate to, Category category, int limit) {
+        String sql = category == null
+                ? SQL_FOR_TOP_SELLERS.formatted("")
+                : SQL_FOR_TOP_SELLERS.formatted("AND d.category = ?");
+        Object[] params = category == null
+                ? new Object[]{Date.valueOf(from), Date.valueOf(to), limit}
+                : new Object[]{Date.valueOf(from), Date.valueOf(to), category.toString(), limit};
+
+        return jdbcTemplate.query(sql, (rs, _) -> new TopSeller(
+                UUID.fromString(rs.getString("book_id")),
+                Category.valueOf(rs.getString("category")),
+                rs.getLong("units"),
+                TotalPrice.of(rs.getBigDecimal("revenue"))
+        ), params);
+    }
+
+    /**
+     * Backfill: rebuilds the whole rollup from the order lines whose copies are taken from stock,
+     * pending flash-sale lines are added by the flusher when it applies them.
+     * Lines of cancelled orders stay applied, so they are excluded by the order.
+     */
+    @Transactional
+    public void rebuild() {
+        jdbcTemplate.update("DELETE FROM Book_Sales_Daily");
+        jdbcTemplate.update(SQL_FOR_BACKFILL);
+    }
+
+    private String upsertStatement() {
+        if (upsertSupported == null) {
+            upsertSupported = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                    "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())
+            );
+        }
+        return Boolean.TRUE.equals(upsertSupported) ? SQL_FOR_UPSERT : SQL_FOR_MERGE;
+    }
+
+    /**Concurrent first sales of a book on a day can`t collide, unlike MERGE.*/
+    private static final String SQL_FOR_UPSERT = """
+                INSERT INTO Book_Sales_Daily (sales_date, book_id, category, units, revenue)
+                VALUES (?, ?, ?, ?, ?)
+                ON CONFLICT (sales_date, book_id) DO UPDATE SET
+                    units = Book_Sales_Daily.units + EXCLUDED.units,
+                    revenue = Book_Sales_Daily.revenue + EXCLUDED.revenue
+                """;
+
+    private static final String SQL_FOR_MERGE = """
+                MERGE INTO Book_Sales_Daily d
+                USING (VALUES (CAST(? AS DATE), CAST(? AS VARCHAR(36)), CAST(? AS VARCHAR(255)),
+                               CAST(? AS INT), CAST(? AS DECIMAL(38, 2))))
+                    AS s (sales_date, book_id, category, units, revenue)
+                ON d.sales_date = s.sales_date AND d.book_id = s.book_id
+                WHEN MATCHED THEN UPDATE SET
+                    units = d.units + s.units,
+                    revenue = d.revenue + s.revenue
+                WHEN NOT MATCHED THEN INSERT (sales_date, book_id, category, units, revenue)
+                    VALUES (s.sales_date, s.book_id, s.category, s.units, s.revenue)
+                """;
+
+    private static final String SQL_FOR_TOP_SELLERS = """
+                SELECT d.book_id, d.category, SUM(d.units) AS units, SUM(d.revenue) AS revenue
+                FROM Book_Sales_Daily d
+                WHERE d.sales_date BETWEEN ? AND ? %s
+                GROUP BY d.book_id, d.category
+                ORDER BY units DESC, d.book_id
+                LIMIT ?
+                """;
+
+    private static final String SQL_FOR_BACKFILL = """
+                INSERT INTO Book_Sales_Daily (sales_date, book_id, category, units, revenue)
+                SELECT CAST(o.creation_date AS DATE), b.id, b.category,
+                       SUM(bo.count_of_book_copies), SUM(bo.count_of_book_copies * bo.unit_price)
+                FROM Book_Order bo
+                    INNER JOIN Orders o ON o.id = bo.order_id
+                    INNER JOIN Books b ON b.id = bo.book_id
+                WHERE bo.stock_applied = true AND o.cancelled = false
+                GROUP BY CAST(o.creation_date AS DATE), b.id, b.category
+                """;
+}
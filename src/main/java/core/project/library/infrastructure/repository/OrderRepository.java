@@ -3,14 +3,32 @@ package core.project.library.infrastructure.repository;
 import core.project.library.domain.entities.*;
 import core.project.library.domain.events.Events;
 import core.project.library.domain.value_objects.*;
+import core.project.library.infrastructure.exceptions.DuplicateIdempotencyKeyException;
+import core.project.library.infrastructure.exceptions.NotFoundException;
+import core.project.library.infrastructure.exceptions.QuantityOnHandException;
+import core.project.library.infrastructure.exceptions.RemovedFromSaleException;
+import core.project.library.infrastructure.exceptions.StockHoldException;
+import core.project.library.infrastructure.pagination.PageCursor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.SqlTypeValue;
 import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.jdbc.core.support.AbstractSqlTypeValue;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Timestamp;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.*;
 
 @Slf4j
@@ -19,15 +37,24 @@ public class OrderRepository {
 
     private final JdbcClient jdbcClient;
 
-    public OrderRepository(JdbcClient jdbcClient) {
+    private final JdbcTemplate jdbcTemplate;
+
+    private final BookSalesRepository bookSalesRepository;
+
+    /**Expired idempotency keys may be claimed again before they are purged.*/
+    private final Duration idempotencyKeyTimeToLive;
+
+    public OrderRepository(JdbcClient jdbcClient, JdbcTemplate jdbcTemplate, BookSalesRepository bookSalesRepository,
+                           @Value("${library.order.idempotency.time-to-live:PT24H}") Duration idempotencyKeyTimeToLive) {
         this.jdbcClient = jdbcClient;
+        this.jdbcTemplate = jdbcTemplate;
+        this.bookSalesRepository = bookSalesRepository;
+        this.idempotencyKeyTimeToLive = idempotencyKeyTimeToLive;
     }
 
     public Optional<Order> findById(UUID orderId) {
         try {
-            Order order = getOrderById(orderId);
-
-            return Optional.of(order);
+            return getOrderById(orderId);
         } catch (DataAccessException e) {
             log.error(e.getMessage());
             return Optional.empty();
@@ -46,291 +73,1027 @@ public class OrderRepository {
                     .query((rs, _) -> UUID.fromString(rs.getString("id")))
                     .set();
 
-            return orderIds.stream()
-                    .map(this::getOrderById)
-                    .toList();
+            return loadOrders(orderIds);
         } catch (DataAccessException e) {
             log.error(e.getMessage());
             return Collections.emptyList();
         }
     }
 
-    public List<Order> findByBookId(UUID bookId) {
+    /**
+     * Page of orders containing the book, newest first, by the keyset (creation_date, id) like the other order pages.
+     * The creation date of the order is kept on its lines, so the page is served by the index
+     * (book_id, order_creation_date, order_id) without joining Orders.
+     * @param cursor position of the last order of the previous page, null for the first page.
+     */
+    public List<Order> findByBookId(UUID bookId, PageCursor cursor, Integer pageSize) {
         try {
-            String findByBookId = """
-                    Select Orders.id FROM Orders
-                    JOIN Book_Order ON Orders.id = Book_Order.order_id
-                    JOIN Books ON Book_Order.book_id = Books.id
-                    WHERE Books.id = ?
-                    """;
+            int limit = BookRepository.buildLimit(pageSize);
 
-            Set<UUID> bookIds = jdbcClient.sql(findByBookId)
-                    .param(bookId.toString())
-                    .query((rs, _) -> UUID.fromString(rs.getString("id")))
-                    .set();
+            var statement = cursor == null
+                    ? jdbcClient.sql(SQL_FOR_PAGE_OF_ORDER_IDS_BY_BOOK.formatted(""))
+                            .params(bookId.toString(), limit)
+                    : jdbcClient.sql(SQL_FOR_PAGE_OF_ORDER_IDS_BY_BOOK.formatted(ORDERS_OF_BOOK_BEFORE_CURSOR))
+                            .params(bookId.toString(), cursor.creationDate(), cursor.id().toString(), limit);
 
-            return bookIds.stream()
-                    .map(this::getOrderById)
-                    .toList();
+            List<UUID> orderIds = statement
+                    .query((rs, _) -> UUID.fromString(rs.getString("order_id")))
+                    .list();
+
+            return loadOrders(orderIds);
         } catch (DataAccessException e) {
             log.error(e.getMessage());
             return Collections.emptyList();
         }
     }
 
+    /**
+     * Count of live orders containing the book, counted up to the cap only,
+     * so a bestseller costs a bounded index-only scan of Book_Order instead of counting all its orders.
+     * Cancelled orders are not counted, though the pages of {@link #findByBookId} list them, flagged.
+     * Their lines carry the cancelled flag of the order, so the count does not join Orders.
+     */
+    public int countByBookId(UUID bookId, int cap) {
+        Integer count = jdbcClient.sql("""
+                    SELECT COUNT(*) FROM (
+                        SELECT 1 FROM Book_Order
+                        WHERE book_id = ? AND order_cancelled = false
+                        LIMIT ?
+                    ) capped
+                    """)
+                .params(bookId.toString(), cap)
+                .query(Integer.class)
+                .single();
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Saves the order and takes its copies from stock in one transaction.
+     * Every line decrements the quantity relative to the current row only if enough copies are on sale,
+     * a line that affects no rows rolls back the whole order.
+     * <p>
+     * Lines of the reserved books are saved as pending, their copies are already reserved in memory
+     * and are taken from stock later by {@link #applyPendingStock(int)}.
+     * The idempotency key, if given, is claimed in the same transaction as the order. A concurrent order
+     * with the same key waits for this one and then fails with {@link DuplicateIdempotencyKeyException},
+     * so a retried request can`t create a second order.
+     * The stock hold, if given, is consumed instead of taking the copies from stock again. The order has to contain
+     * exactly the held copies, otherwise {@link StockHoldException} is thrown and the hold is left as it was.
+     */
     @Transactional
-    public Optional<Order> save(Order order, Set<Book> books) {
+    public Optional<Order> save(OrderToSave orderToSave) {
         try {
-            String save = """
-                    INSERT INTO Orders (id, customer_id,
-                                    count_of_book, total_price,
-                                    paid_amount, change_of_order,
-                                    credit_card_number, credit_card_expiration, creation_date)
-                                    VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
-                    """;
-
-            jdbcClient.sql(save)
-                    .params(order.getId().toString(), order.getCustomer().getId(), order.getCountOfBooks(),
-                            order.getTotalPrice().totalPrice(), order.getPaidAmount().paidAmount(),
-                            order.getChangeOfOrder().changeOfOrder(), order.getCreditCard().creditCardNumber(),
-                            order.getCreditCard().creditCardExpiration(), order.getCreationDate())
-                    .update();
-
-
-            order.getBooks().forEach((book, countOfBooks) -> jdbcClient.sql("""
-                    INSERT INTO Book_Order (book_id, order_id, count_of_book_copies)
-                                VALUES (?, ?, ?)
-                    """)
-                    .param(book.getId().toString())
-                    .param(order.getId().toString())
-                    .param(countOfBooks)
-                    .update());
-
-            books.forEach(book -> jdbcClient.sql("""
-                        UPDATE Books SET quantity_on_hand = ?
-                        WHERE id = ?
-                        """)
-                    .param(book.getQuantityOnHand().quantityOnHand())
-                    .param(book.getId().toString())
-                    .update());
-
-            return Optional.of(order);
+            insertOrders(List.of(orderToSave));
+            return Optional.of(orderToSave.order());
         } catch (DataAccessException e) {
             log.error(e.getMessage());
             return Optional.empty();
         }
     }
 
-    private Order getOrderById(UUID orderId) {
-        var bookIds = fetchBookIds(orderId);
+    /**
+     * @param reservedBookIds books whose copies are reserved in memory, empty if none.
+     * @param idempotencyKey may be null.
+     * @param holdId may be null.
+     */
+    public record OrderToSave(Order order, Set<UUID> reservedBookIds, String idempotencyKey, UUID holdId) {}
+
+    /**
+     * Saves all orders in one transaction with a batch statement per table, all or nothing.
+     * Unlike {@link #save(OrderToSave)} a failure is thrown, so the caller can retry orders one by one.
+     */
+    @Transactional
+    public void saveAll(List<OrderToSave> orders) {
+        insertOrders(orders);
+    }
 
-        Map<Book, Integer> bookMap = new HashMap<>();
-        for (UUID bookId : bookIds) {
-            var publisher = fetchPublisher(bookId);
-            var authors = fetchAuthors(bookId);
-            var bookCount = fetchBooks(orderId, bookId, publisher, authors);
-            bookMap.put(bookCount.book(), bookCount.count());
+    private void insertOrders(List<OrderToSave> orders) {
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO Orders (id, customer_id,
+                                count_of_book, total_price,
+                                paid_amount, change_of_order,
+                                credit_card_number, credit_card_expiration, creation_date)
+                                VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+                """, orders, orders.size(), (ps, orderToSave) -> {
+                    Order order = orderToSave.order();
+                    ps.setString(1, order.getId().toString());
+                    ps.setString(2, order.getCustomer().getId().toString());
+                    ps.setInt(3, order.getCountOfBooks());
+                    ps.setBigDecimal(4, order.getTotalPrice().toBigDecimal());
+                    ps.setBigDecimal(5, order.getPaidAmount().toBigDecimal());
+                    ps.setBigDecimal(6, order.getChangeOfOrder().toBigDecimal());
+                    ps.setString(7, order.getCreditCard().creditCardNumber());
+                    ps.setString(8, order.getCreditCard().creditCardExpiration().toString());
+                    ps.setTimestamp(9, Timestamp.valueOf(order.getCreationDate()));
+                });
+
+        List<OrderToSave> ordersWithKeys = orders.stream()
+                .filter(orderToSave -> orderToSave.idempotencyKey() != null)
+                .toList();
+        if (!ordersWithKeys.isEmpty()) {
+            claimIdempotencyKeys(ordersWithKeys);
+        }
+
+        List<PendingLine> lines = new ArrayList<>();
+        List<Price> unitPrices = new ArrayList<>();
+        List<Boolean> stockApplied = new ArrayList<>();
+        List<Timestamp> creationDates = new ArrayList<>();
+        Map<UUID, Integer> unreservedCopies = new HashMap<>();
+        List<BookSalesRepository.Sale> sales = new ArrayList<>();
+        for (OrderToSave orderToSave : orders) {
+            LocalDate salesDate = orderToSave.order().getCreationDate().toLocalDate();
+            boolean held = orderToSave.holdId() != null;
+            if (held) {
+                consumeHold(orderToSave);
+            }
+            orderToSave.order().getBooks().forEach((book, copies) -> {
+                boolean reserved = orderToSave.reservedBookIds().contains(book.getId());
+                lines.add(new PendingLine(book.getId(), orderToSave.order().getId(), copies));
+                unitPrices.add(book.getPrice());
+                stockApplied.add(!reserved);
+                creationDates.add(Timestamp.valueOf(orderToSave.order().getCreationDate()));
+                if (!reserved) {
+                    if (!held) {
+                        unreservedCopies.merge(book.getId(), copies, Integer::sum);
+                    }
+                    sales.add(new BookSalesRepository.Sale(
+                            book.getId(), salesDate, book.getCategory(), copies, book.getPrice().times(copies)
+                    ));
+                }
+            });
         }
 
-        var customer = fetchCustomer(orderId);
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO Book_Order (book_id, order_id, count_of_book_copies, unit_price, stock_applied,
+                                        order_creation_date)
+                            VALUES (?, ?, ?, ?, ?, ?)
+                """, new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ps.setString(1, lines.get(i).bookId().toString());
+                        ps.setString(2, lines.get(i).orderId().toString());
+                        ps.setInt(3, lines.get(i).copies());
+                        ps.setBigDecimal(4, unitPrices.get(i).toBigDecimal());
+                        ps.setBoolean(5, stockApplied.get(i));
+                        ps.setTimestamp(6, creationDates.get(i));
+                    }
 
-        return fetchOrder(orderId, customer, bookMap);
+                    @Override
+                    public int getBatchSize() {
+                        return lines.size();
+                    }
+                });
+
+        decrementQuantityOnHand(unreservedCopies);
+        bookSalesRepository.recordSales(sales);
     }
 
-    private Order fetchOrder(UUID orderId, Customer customer, Map<Book, Integer> bookMap) {
-        String sqlOrder = """
-                SELECT
-                    o.id AS id,
-                    o.count_of_book AS count_of_book,
-                    o.total_price AS total_price,
-                    o.paid_amount AS paid_amount,
-                    o.change_of_order AS change_of_order,
-                    o.credit_card_number AS credit_card_number,
-                    o.credit_card_expiration AS credit_card_expiration,
-                    o.creation_date AS creation_date
-                FROM Orders o WHERE id = ?
-                """;
+    /**
+     * A key that expired but is not purged yet is deleted first, so it is claimed as a new one.
+     */
+    private void claimIdempotencyKeys(List<OrderToSave> orders) {
+        Timestamp expiredBefore = Timestamp.valueOf(LocalDateTime.now().minus(idempotencyKeyTimeToLive));
+        jdbcTemplate.batchUpdate("""
+                DELETE FROM Idempotency_Keys
+                WHERE idempotency_key = ? AND creation_date < ?
+                """, orders, orders.size(), (ps, orderToSave) -> {
+                    ps.setString(1, orderToSave.idempotencyKey());
+                    ps.setTimestamp(2, expiredBefore);
+                });
 
-        return jdbcClient.sql(sqlOrder)
+        try {
+            jdbcTemplate.batchUpdate("""
+                    INSERT INTO Idempotency_Keys (idempotency_key, order_id, creation_date)
+                                VALUES (?, ?, ?)
+                    """, orders, orders.size(), (ps, orderToSave) -> {
+                        ps.setString(1, orderToSave.idempotencyKey());
+                        ps.setString(2, orderToSave.order().getId().toString());
+                        ps.setTimestamp(3, Timestamp.valueOf(orderToSave.order().getCreationDate()));
+                    });
+        } catch (DuplicateKeyException e) {
+            throw new DuplicateIdempotencyKeyException("Order with this idempotency key already exists.");
+        }
+    }
+
+    public boolean existsById(UUID orderId) {
+        Integer count = jdbcClient.sql("SELECT COUNT(*) FROM Orders WHERE id = ?")
                 .param(orderId.toString())
-                .query((rs, _) -> {
-                    CreditCard creditCard = new CreditCard(
-                            rs.getString("credit_card_number"),
-                            LocalDate.parse(rs.getString("credit_card_expiration"))
-                    );
+                .query(Integer.class)
+                .single();
+        return count != null && count > 0;
+    }
 
-                    return Order.create(
-                            UUID.fromString(rs.getString("id")),
-                            new PaidAmount(rs.getDouble("paid_amount")),
-                            creditCard,
-                            rs.getTimestamp("creation_date").toLocalDateTime(),
-                            customer,
-                            bookMap
-                    );
-                }).single();
+    public Optional<UUID> findOrderIdByIdempotencyKey(String idempotencyKey, LocalDateTime notOlderThan) {
+        return jdbcClient.sql("""
+                    SELECT order_id FROM Idempotency_Keys
+                    WHERE idempotency_key = ? AND creation_date >= ?
+                    """)
+                .params(idempotencyKey, notOlderThan)
+                .query((rs, _) -> UUID.fromString(rs.getString("order_id")))
+                .optional();
     }
 
-    private Customer fetchCustomer(UUID orderId) {
-        String sqlCustomer = """
-                SELECT * FROM Customers c
-                    INNER JOIN Orders o ON o.customer_id = c.id
-                WHERE o.id = ?
-                """;
+    /**
+     * @return count of purged keys.
+     */
+    public int purgeIdempotencyKeys(LocalDateTime olderThan) {
+        return jdbcClient.sql("DELETE FROM Idempotency_Keys WHERE creation_date < ?")
+                .param(olderThan)
+                .update();
+    }
 
-        return jdbcClient.sql(sqlCustomer)
-                .param(orderId.toString())
+    /**
+     * Copies are summed per book and sorted by book id,
+     * so concurrent orders lock the same rows in the same order and can`t deadlock.
+     */
+    private void decrementQuantityOnHand(Map<UUID, Integer> copiesOfBooks) {
+        if (copiesOfBooks.isEmpty()) {
+            return;
+        }
+
+        List<Map.Entry<UUID, Integer>> lines = new ArrayList<>(new TreeMap<>(copiesOfBooks).entrySet());
+
+        int[] updatedRows = jdbcTemplate.batchUpdate(SQL_FOR_DECREMENT_QUANTITY_ON_HAND,
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Map.Entry<UUID, Integer> line = lines.get(i);
+                        ps.setInt(1, line.getValue());
+                        ps.setString(2, line.getKey().toString());
+                        ps.setInt(3, line.getValue());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return lines.size();
+                    }
+                });
+
+        for (int i = 0; i < updatedRows.length; i++) {
+            if (updatedRows[i] == 0) {
+                throw rejectedLine(lines.get(i).getKey());
+            }
+        }
+    }
+
+    /**
+     * Takes the copies of up to batchSize pending lines from stock and marks the lines as applied,
+     * both in one transaction, so every line is applied exactly once even if the application stops in between.
+     * The lines are added to the sales rollup at the same time, reserved copies are not sold until then.
+     * The decrement is guarded like the one of a placed order, a book oversold by the counters is emptied instead.
+     * @return count of copies taken from stock per book.
+     */
+    @Transactional
+    public Map<UUID, Integer> applyPendingStock(int batchSize) {
+        List<BookSalesRepository.Sale> sales = new ArrayList<>();
+        List<PendingLine> pendingLines = jdbcClient.sql(SQL_FOR_PENDING_LINES)
+                .param(batchSize)
                 .query((rs, _) -> {
-                    Address address = new Address(
-                            rs.getString("state"),
-                            rs.getString("city"),
-                            rs.getString("street"),
-                            rs.getString("home")
+                    PendingLine line = new PendingLine(
+                            UUID.fromString(rs.getString("book_id")),
+                            UUID.fromString(rs.getString("order_id")),
+                            rs.getInt("count_of_book_copies")
                     );
+                    sales.add(new BookSalesRepository.Sale(
+                            line.bookId(),
+                            rs.getTimestamp("order_creation_date").toLocalDateTime().toLocalDate(),
+                            Category.valueOf(rs.getString("book_category")),
+                            line.copies(),
+                            Price.of(rs.getBigDecimal("unit_price")).times(line.copies())
+                    ));
+                    return line;
+                })
+                .list();
 
-                    Events events = new Events(
-                            rs.getObject("creation_date", Timestamp.class).toLocalDateTime(),
-                            rs.getObject("last_modified_date", Timestamp.class).toLocalDateTime()
-                    );
+        if (pendingLines.isEmpty()) {
+            return Collections.emptyMap();
+        }
 
-                    return Customer.create(
-                            UUID.fromString(rs.getString("id")),
-                            new FirstName(rs.getString("first_name")),
-                            new LastName(rs.getString("last_name")),
-                            new Password(rs.getString("password")),
-                            new Email(rs.getString("email")),
-                            address,
-                            events
-                    );
-                }).single();
+        Map<UUID, Integer> copiesOfBooks = new TreeMap<>();
+        pendingLines.forEach(line -> copiesOfBooks.merge(line.bookId(), line.copies(), Integer::sum));
+        List<Map.Entry<UUID, Integer>> decrements = new ArrayList<>(copiesOfBooks.entrySet());
+
+        int[] decrementedRows = jdbcTemplate.batchUpdate(
+                "UPDATE Books SET quantity_on_hand = quantity_on_hand - ? WHERE id = ? AND quantity_on_hand >= ?",
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ps.setInt(1, decrements.get(i).getValue());
+                        ps.setString(2, decrements.get(i).getKey().toString());
+                        ps.setInt(3, decrements.get(i).getValue());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return decrements.size();
+                    }
+                });
+
+        for (int i = 0; i < decrementedRows.length; i++) {
+            if (decrementedRows[i] == 0) {
+                clampOversoldBook(decrements.get(i).getKey(), decrements.get(i).getValue());
+            }
+        }
+
+        jdbcTemplate.batchUpdate("UPDATE Book_Order SET stock_applied = true WHERE book_id = ? AND order_id = ?",
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ps.setString(1, pendingLines.get(i).bookId().toString());
+                        ps.setString(2, pendingLines.get(i).orderId().toString());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return pendingLines.size();
+                    }
+                });
+
+        bookSalesRepository.recordSales(sales);
+        return copiesOfBooks;
     }
 
-    record BookCount(Book book, Integer count) {}
+    /**
+     * The pending lines were accepted by the in-memory counters, so they stay saved, but the stock
+     * can`t go below zero: the book is emptied and the oversold copies are logged.
+     */
+    private void clampOversoldBook(UUID bookId, int copies) {
+        Integer quantityOnHand = jdbcTemplate.queryForObject(
+                "SELECT quantity_on_hand FROM Books WHERE id = ?", Integer.class, bookId.toString()
+        );
+        jdbcTemplate.update("UPDATE Books SET quantity_on_hand = 0 WHERE id = ?", bookId.toString());
+        log.warn("Flash sale oversold book {} by {} copies.", bookId, copies - (quantityOnHand == null ? 0 : quantityOnHand));
+    }
 
-    private BookCount fetchBooks(UUID orderId, UUID bookId, Publisher publisher, Set<Author> authors) {
-        String bookSql = """
-                SELECT
-                    b.id AS id,
-                    b.title AS title,
-                    b.description AS description,
-                    b.isbn AS isbn,
-                    b.price AS price,
-                    b.quantity_on_hand AS quantity_on_hand,
-                    bo.count_of_book_copies AS count_of_copies,
-                    b.category AS category,
-                    b.creation_date AS creation_date,
-                    b.last_modified_date AS last_modified_date,
-                    b.withdrawn_from_sale AS withdrawn_from_sale
-                
-                FROM Books b
-                     INNER JOIN Book_Order bo ON b.id = bo.book_id AND bo.order_id = ?
-                WHERE b.id = ?
-                """;
+    private record PendingLine(UUID bookId, UUID orderId, int copies) {}
 
-        return jdbcClient.sql(bookSql)
-                .param(orderId.toString())
+    /**
+     * @param copiesOfBooks all copies of the cancelled order per book, pending lines included.
+     */
+    public record CancelledOrder(UUID orderId, Map<UUID, Integer> copiesOfBooks) {}
+
+    /**
+     * Marks the order cancelled and gives its copies back in the same transaction.
+     * Copies already taken from stock are added back with one batched relative update,
+     * pending lines are only marked as applied, so the flusher never takes them.
+     * All lines are flagged cancelled as well, for the per-book count.
+     * The conditional update of the order serializes concurrent cancellations,
+     * only the first one gives the copies back.
+     * @return empty if the order was already cancelled.
+     */
+    @Transactional
+    public Optional<CancelledOrder> cancel(UUID orderId) {
+        int cancelledRows = jdbcTemplate.update(
+                "UPDATE Orders SET cancelled = true WHERE id = ? AND cancelled = false", orderId.toString()
+        );
+        if (cancelledRows == 0) {
+            if (!existsById(orderId)) {
+                throw new NotFoundException("Order was not found.");
+            }
+            return Optional.empty();
+        }
+
+        Map<UUID, Integer> copiesOfBooks = new TreeMap<>();
+        Map<UUID, Integer> appliedCopies = new TreeMap<>();
+        List<BookSalesRepository.Sale> returns = new ArrayList<>();
+        jdbcTemplate.query(SQL_FOR_LINES_OF_CANCELLED_ORDER, rs -> {
+            UUID bookId = UUID.fromString(rs.getString("book_id"));
+            int copies = rs.getInt("count_of_book_copies");
+            copiesOfBooks.put(bookId, copies);
+            if (rs.getBoolean("stock_applied")) {
+                appliedCopies.put(bookId, copies);
+                returns.add(new BookSalesRepository.Sale(
+                        bookId,
+                        rs.getTimestamp("order_creation_date").toLocalDateTime().toLocalDate(),
+                        Category.valueOf(rs.getString("book_category")),
+                        -copies,
+                        -Price.of(rs.getBigDecimal("unit_price")).times(copies)
+                ));
+            }
+        }, orderId.toString());
+
+        incrementQuantityOnHand(appliedCopies);
+
+        jdbcTemplate.update("UPDATE Book_Order SET order_cancelled = true, stock_applied = true WHERE order_id = ?",
+                orderId.toString());
+
+        bookSalesRepository.recordSales(returns);
+        return Optional.of(new CancelledOrder(orderId, copiesOfBooks));
+    }
+
+    /**
+     * Copies are summed per book and sorted by book id like {@link #decrementQuantityOnHand(Map)},
+     * a single batched relative update without reading the quantities first.
+     */
+    private void incrementQuantityOnHand(Map<UUID, Integer> copiesOfBooks) {
+        if (copiesOfBooks.isEmpty()) {
+            return;
+        }
+
+        List<Map.Entry<UUID, Integer>> increments = new ArrayList<>(new TreeMap<>(copiesOfBooks).entrySet());
+        jdbcTemplate.batchUpdate("UPDATE Books SET quantity_on_hand = quantity_on_hand + ? WHERE id = ?",
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ps.setInt(1, increments.get(i).getValue());
+                        ps.setString(2, increments.get(i).getKey().toString());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return increments.size();
+                    }
+                });
+    }
+
+    /**
+     * Takes the copies from stock for the hold, all or nothing, with the same checks as an order.
+     */
+    @Transactional
+    public void holdStock(UUID holdId, UUID customerId, Map<UUID, Integer> copiesOfBooks, LocalDateTime expiresAt) {
+        List<Map.Entry<UUID, Integer>> lines = new ArrayList<>(copiesOfBooks.entrySet());
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO Stock_Holds (hold_id, book_id, customer_id, count_of_book_copies, expires_at)
+                            VALUES (?, ?, ?, ?, ?)
+                """, lines, lines.size(), (ps, line) -> {
+                    ps.setString(1, holdId.toString());
+                    ps.setString(2, line.getKey().toString());
+                    ps.setString(3, customerId.toString());
+                    ps.setInt(4, line.getValue());
+                    ps.setTimestamp(5, Timestamp.valueOf(expiresAt));
+                });
+
+        decrementQuantityOnHand(copiesOfBooks);
+    }
+
+    /**
+     * Gives back the copies of the holds that have expired by now, holds consumed by an order are skipped.
+     * The lines are locked first, so a hold is either consumed or released, never both.
+     * @return released copies per book.
+     */
+    @Transactional
+    public Map<UUID, Integer> releaseExpiredHolds(Collection<UUID> holdIds, LocalDateTime now) {
+        Map<UUID, Integer> releasedCopies = new TreeMap<>();
+        jdbcTemplate.query(SQL_FOR_LINES_OF_EXPIRED_HOLDS, rs -> {
+            releasedCopies.merge(UUID.fromString(rs.getString("book_id")), rs.getInt("count_of_book_copies"), Integer::sum);
+        }, anyOf(holdIds), Timestamp.valueOf(now));
+
+        if (releasedCopies.isEmpty()) {
+            return releasedCopies;
+        }
+
+        jdbcTemplate.update("DELETE FROM Stock_Holds WHERE hold_id = ANY(?) AND expires_at <= ?",
+                anyOf(holdIds), Timestamp.valueOf(now));
+        incrementQuantityOnHand(releasedCopies);
+        return releasedCopies;
+    }
+
+    /**
+     * @return expiration of every hold that is not consumed or released yet.
+     */
+    public Map<UUID, LocalDateTime> findHoldExpirations() {
+        Map<UUID, LocalDateTime> expirations = new HashMap<>();
+        jdbcTemplate.query("SELECT DISTINCT hold_id, expires_at FROM Stock_Holds", rs -> {
+            expirations.put(UUID.fromString(rs.getString("hold_id")), rs.getTimestamp("expires_at").toLocalDateTime());
+        });
+        return expirations;
+    }
+
+    private void consumeHold(OrderToSave orderToSave) {
+        Order order = orderToSave.order();
+        Map<UUID, Integer> heldCopies = new HashMap<>();
+        jdbcTemplate.query(SQL_FOR_LINES_OF_HOLD, rs -> {
+            heldCopies.put(UUID.fromString(rs.getString("book_id")), rs.getInt("count_of_book_copies"));
+        }, orderToSave.holdId().toString(), order.getCustomer().getId().toString(), Timestamp.valueOf(LocalDateTime.now()));
+
+        if (heldCopies.isEmpty()) {
+            throw new StockHoldException("Stock hold has expired or was already used.");
+        }
+
+        Map<UUID, Integer> orderedCopies = new HashMap<>();
+        order.getBooks().forEach((book, copies) -> orderedCopies.put(book.getId(), copies));
+        if (!orderedCopies.equals(heldCopies) || !orderToSave.reservedBookIds().isEmpty()) {
+            throw new StockHoldException("Order does not match the stock hold.");
+        }
+
+        jdbcTemplate.update("DELETE FROM Stock_Holds WHERE hold_id = ?", orderToSave.holdId().toString());
+    }
+
+    /**
+     * @return copies of the books on sale that are not taken by any order yet, pending lines included.
+     */
+    public Map<UUID, Integer> reservableQuantities(Collection<UUID> bookIds) {
+        if (bookIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        Map<UUID, Integer> quantities = new HashMap<>();
+        jdbcClient.sql(SQL_FOR_RESERVABLE_QUANTITIES)
+                .param(anyOf(bookIds))
+                .query(rs -> {
+                    quantities.put(UUID.fromString(rs.getString("book_id")), rs.getInt("reservable_quantity"));
+                });
+        return quantities;
+    }
+
+    /**
+     * Only on the failure path: tells apart a withdrawn book from a lack of copies.
+     */
+    private RuntimeException rejectedLine(UUID bookId) {
+        Optional<Boolean> withdrawnFromSale = jdbcClient.sql("SELECT withdrawn_from_sale FROM Books WHERE id = ?")
                 .param(bookId.toString())
-                .query((rs, rowNum) -> {
-                    Events events = new Events(
-                            rs.getObject("creation_date", Timestamp.class).toLocalDateTime(),
-                            rs.getObject("last_modified_date", Timestamp.class).toLocalDateTime()
-                    );
+                .query(Boolean.class)
+                .optional();
 
-                    Book book = Book.create(
-                            UUID.fromString(rs.getString("id")),
-                            new Title(rs.getString("title")),
-                            new Description(rs.getString("description")),
-                            new ISBN(rs.getString("isbn")),
-                            new Price(rs.getDouble("price")),
-                            new QuantityOnHand(rs.getInt("quantity_on_hand")),
-                            Category.valueOf(rs.getString("category")),
-                            events,
-                            rs.getBoolean("withdrawn_from_sale"),
-                            publisher,
-                            authors
-                    );
+        if (withdrawnFromSale.isEmpty()) {
+            return new NotFoundException();
+        }
+        if (withdrawnFromSale.get()) {
+            return new RemovedFromSaleException("Book is not on sale");
+        }
+        return new QuantityOnHandException("We do not have enough books for this order.");
+    }
+
+    public record OrderLine(UUID bookId, Integer countOfCopies, Price unitPrice) {}
+
+    public record OrderHistory(UUID orderId, LocalDateTime creationDate, Integer countOfBooks,
+                               TotalPrice totalPrice, PaidAmount paidAmount, ChangeOfOrder changeOfOrder,
+                               boolean cancelled, List<OrderLine> lines) {}
+
+    /**
+     * Order history of the customer, newest first, read from the stored totals and unit prices
+     * of Orders and Book_Order only, without hydrating books, publishers and authors.
+     */
+    public List<OrderHistory> findHistoryByCustomerId(UUID customerId) {
+        List<OrderHistory> history = new ArrayList<>();
+        jdbcClient.sql(SQL_FOR_ORDER_HISTORY_OF_CUSTOMER)
+                .param(customerId.toString())
+                .query(rs -> {
+                    UUID orderId = UUID.fromString(rs.getString("order_id"));
+                    if (history.isEmpty() || !history.getLast().orderId().equals(orderId)) {
+                        history.add(new OrderHistory(
+                                orderId,
+                                rs.getTimestamp("creation_date").toLocalDateTime(),
+                                rs.getInt("count_of_book"),
+                                TotalPrice.of(rs.getBigDecimal("total_price")),
+                                PaidAmount.of(rs.getBigDecimal("paid_amount")),
+                                ChangeOfOrder.of(rs.getBigDecimal("change_of_order")),
+                                rs.getBoolean("cancelled"),
+                                new ArrayList<>()
+                        ));
+                    }
 
-                    return new BookCount(book, rs.getInt("count_of_copies"));
-                }).single();
+                    history.getLast().lines().add(new OrderLine(
+                            UUID.fromString(rs.getString("book_id")),
+                            rs.getInt("count_of_book_copies"),
+                            Price.of(rs.getBigDecimal("unit_price"))
+                    ));
+                });
+        return history;
     }
 
-    private Set<Author> fetchAuthors(UUID id) {
-        String sqlAuthors = """
-                Select * FROM Authors
-                     INNER JOIN Book_Author ba ON Authors.id = ba.author_id
-                WHERE ba.book_id = ?
-                """;
+    public record OrderSummaryLine(ISBN isbn, Title title, Integer countOfCopies) {}
 
-        return jdbcClient.sql(sqlAuthors)
-                .param(id.toString())
-                .query((rs, _) -> {
-                    Address address = new Address(
-                            rs.getString("state"),
-                            rs.getString("city"),
-                            rs.getString("street"),
-                            rs.getString("home")
-                    );
+    public record OrderSummary(UUID id, LocalDateTime creationDate, Integer countOfBooks,
+                               TotalPrice totalPrice, boolean cancelled, List<OrderSummaryLine> lines) {}
 
-                    Events events = new Events(
-                            rs.getObject("creation_date", Timestamp.class).toLocalDateTime(),
-                            rs.getObject("last_modified_date", Timestamp.class).toLocalDateTime()
-                    );
+    /**
+     * Page of the customer`s orders, newest first, with isbns and titles of their lines, in one query.
+     * The page of orders is selected by the keyset (creation_date, id) before the lines are joined.
+     */
+    public List<OrderSummary> listOfOrderSummaries(UUID customerId, PageCursor cursor, Integer pageSize) {
+        int limit = BookRepository.buildLimit(pageSize);
 
-                    return Author.create(
-                            UUID.fromString(rs.getString("id")),
-                            new FirstName(rs.getString("first_name")),
-                            new LastName(rs.getString("last_name")),
-                            new Email(rs.getString("email")),
-                            address,
-                            events
-                    );
-                }).set();
+        var statement = cursor == null
+                ? jdbcClient.sql(SQL_FOR_ORDER_SUMMARIES.formatted(""))
+                        .params(customerId.toString(), limit)
+                : jdbcClient.sql(SQL_FOR_ORDER_SUMMARIES.formatted(SUMMARIES_BEFORE_CURSOR))
+                        .params(customerId.toString(), cursor.creationDate(), cursor.id().toString(), limit);
+
+        List<OrderSummary> summaries = new ArrayList<>();
+        statement.query(rs -> {
+            UUID orderId = UUID.fromString(rs.getString("order_id"));
+            if (summaries.isEmpty() || !summaries.getLast().id().equals(orderId)) {
+                summaries.add(new OrderSummary(
+                        orderId,
+                        rs.getTimestamp("creation_date").toLocalDateTime(),
+                        rs.getInt("count_of_book"),
+                        TotalPrice.of(rs.getBigDecimal("total_price")),
+                        rs.getBoolean("cancelled"),
+                        new ArrayList<>()
+                ));
+            }
+
+            summaries.getLast().lines().add(new OrderSummaryLine(
+                    new ISBN(rs.getString("isbn")),
+                    new Title(rs.getString("title")),
+                    rs.getInt("count_of_book_copies")
+            ));
+        });
+        return summaries;
     }
 
-    private Publisher fetchPublisher(UUID id) {
-        String sqlPublisher = """
-                Select * FROM Publishers
-                      INNER JOIN Books b ON Publishers.id = b.publisher_id
-                WHERE b.id = ?
-                """;
+    private Optional<Order> getOrderById(UUID orderId) {
+        return loadOrders(List.of(orderId)).stream().findFirst();
+    }
 
-        return jdbcClient.sql(sqlPublisher)
-                .param(id.toString())
-                .query((rs, _) -> {
-                    Address address = new Address(
-                            rs.getString("state"),
-                            rs.getString("city"),
-                            rs.getString("street"),
-                            rs.getString("home")
-                    );
+    /**
+     * Loads whole aggregates of all given orders with three queries regardless of the count of orders and lines:
+     * orders with their customers, authors of the ordered books, lines with books and their publishers.
+     * Customers, books, publishers and authors shared between orders are created once.
+     * The result keeps the order of the given ids, missing orders are skipped.
+     */
+    private List<Order> loadOrders(Collection<UUID> orderIds) {
+        if (orderIds.isEmpty()) {
+            return Collections.emptyList();
+        }
 
-                    Events events = new Events(
-                            rs.getObject("creation_date", Timestamp.class).toLocalDateTime(),
-                            rs.getObject("last_modified_date", Timestamp.class).toLocalDateTime()
-                    );
+        Map<UUID, Customer> customers = new HashMap<>();
+        Map<UUID, OrderRow> orderRows = new HashMap<>();
+        jdbcClient.sql(SQL_FOR_ORDERS_WITH_CUSTOMERS)
+                .param(anyOf(orderIds))
+                .query(rs -> {
+                    UUID customerId = UUID.fromString(rs.getString("customer_id"));
+                    Customer customer = customers.get(customerId);
+                    if (customer == null) {
+                        customer = extractDataToCustomer(rs);
+                        customers.put(customerId, customer);
+                    }
 
-                    return Publisher.create(
-                            UUID.fromString(rs.getString("id")),
-                            new PublisherName(rs.getString("publisher_name")),
-                            address,
-                            new Phone(rs.getString("phone")),
-                            new Email(rs.getString("email")),
-                            events
+                    OrderRow orderRow = new OrderRow(
+                            UUID.fromString(rs.getString("order_id")),
+                            rs.getInt("order_count_of_book"),
+                            TotalPrice.of(rs.getBigDecimal("order_total_price")),
+                            PaidAmount.of(rs.getBigDecimal("order_paid_amount")),
+                            ChangeOfOrder.of(rs.getBigDecimal("order_change_of_order")),
+                            new CreditCard(
+                                    rs.getString("order_credit_card_number"),
+                                    LocalDate.parse(rs.getString("order_credit_card_expiration"))
+                            ),
+                            rs.getTimestamp("order_creation_date").toLocalDateTime(),
+                            rs.getBoolean("order_cancelled"),
+                            customer
                     );
-                }).single();
+                    orderRows.put(orderRow.id(), orderRow);
+                });
+
+        if (orderRows.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Map<UUID, Author> authors = new HashMap<>();
+        Map<UUID, Set<Author>> authorsOfBooks = new HashMap<>();
+        jdbcClient.sql(SQL_FOR_AUTHORS_OF_ORDERS)
+                .param(anyOf(orderRows.keySet()))
+                .query(rs -> {
+                    UUID authorId = UUID.fromString(rs.getString("author_id"));
+                    Author author = authors.get(authorId);
+                    if (author == null) {
+                        author = extractDataToAuthor(rs);
+                        authors.put(authorId, author);
+                    }
+
+                    UUID bookId = UUID.fromString(rs.getString("book_id"));
+                    Set<Author> authorsOfBook = authorsOfBooks.get(bookId);
+                    if (authorsOfBook == null) {
+                        authorsOfBook = new HashSet<>();
+                        authorsOfBooks.put(bookId, authorsOfBook);
+                    }
+                    authorsOfBook.add(author);
+                });
+
+        Map<UUID, Publisher> publishers = new HashMap<>();
+        Map<UUID, Book> books = new HashMap<>();
+        Map<UUID, Map<Book, Integer>> linesOfOrders = new HashMap<>();
+        jdbcClient.sql(SQL_FOR_LINES_WITH_BOOKS)
+                .param(anyOf(orderRows.keySet()))
+                .query(rs -> {
+                    UUID bookId = UUID.fromString(rs.getString("book_id"));
+                    Book book = books.get(bookId);
+                    if (book == null) {
+                        UUID publisherId = UUID.fromString(rs.getString("publisher_id"));
+                        Publisher publisher = publishers.get(publisherId);
+                        if (publisher == null) {
+                            publisher = extractDataToPublisher(rs);
+                            publishers.put(publisherId, publisher);
+                        }
+
+                        book = extractDataToBook(rs, publisher, authorsOfBooks.getOrDefault(bookId, new HashSet<>()));
+                        books.put(bookId, book);
+                    }
+
+                    UUID orderId = UUID.fromString(rs.getString("order_id"));
+                    Map<Book, Integer> lines = linesOfOrders.get(orderId);
+                    if (lines == null) {
+                        lines = new HashMap<>();
+                        linesOfOrders.put(orderId, lines);
+                    }
+                    lines.put(book, rs.getInt("count_of_book_copies"));
+                });
+
+        List<Order> orders = new ArrayList<>(orderRows.size());
+        for (UUID orderId : orderIds) {
+            OrderRow orderRow = orderRows.get(orderId);
+            if (orderRow != null && linesOfOrders.containsKey(orderId)) {
+                orders.add(orderRow.construct(linesOfOrders.get(orderId)));
+            }
+        }
+        return orders;
     }
 
-    private List<UUID> fetchBookIds(UUID orderId) {
-        String sqlBookId = """
-                SELECT b.id
-                FROM orders o
-                         INNER JOIN Book_Order bo ON o.id = bo.order_id
-                         INNER JOIN Books b ON bo.book_id = b.id
-                WHERE o.id = ?
-                """;
+    /**
+     * Binds the ids as a single varchar array parameter, to be used as {@code column = ANY(?)}.
+     */
+    private static SqlTypeValue anyOf(Collection<UUID> ids) {
+        return new AbstractSqlTypeValue() {
+            @Override
+            protected Object createTypeValue(Connection connection, int sqlType, String typeName) throws SQLException {
+                return connection.createArrayOf("varchar", ids.stream().map(UUID::toString).toArray());
+            }
+        };
+    }
 
-        return jdbcClient.sql(sqlBookId)
-                .param(orderId.toString())
-                .query((rs, _) -> UUID.fromString(rs.getString("id")))
-                .list();
+    private record OrderRow(UUID id, Integer countOfBooks, TotalPrice totalPrice, PaidAmount paidAmount,
+                            ChangeOfOrder changeOfOrder, CreditCard creditCard,
+                            LocalDateTime creationDate, boolean cancelled, Customer customer) {
+
+        Order construct(Map<Book, Integer> books) {
+            return Order.restore(id, countOfBooks, totalPrice, paidAmount, changeOfOrder,
+                    creditCard, creationDate, cancelled, customer, books);
+        }
+    }
+
+    private static Customer extractDataToCustomer(ResultSet rs) throws SQLException {
+        Address address = new Address(
+                rs.getString("customer_state"),
+                rs.getString("customer_city"),
+                rs.getString("customer_street"),
+                rs.getString("customer_home")
+        );
+
+        Events events = new Events(
+                rs.getObject("customer_creation_date", Timestamp.class).toLocalDateTime(),
+                rs.getObject("customer_last_modified_date", Timestamp.class).toLocalDateTime()
+        );
+
+        return Customer.create(
+                UUID.fromString(rs.getString("customer_id")),
+                new FirstName(rs.getString("customer_first_name")),
+                new LastName(rs.getString("customer_last_name")),
+                new Password(rs.getString("customer_password")),
+                new Email(rs.getString("customer_email")),
+                address,
+                events
+        );
+    }
+
+    private static Book extractDataToBook(ResultSet rs, Publisher publisher, Set<Author> authors)
+            throws SQLException {
+        Events events = new Events(
+                rs.getObject("book_creation_date", Timestamp.class).toLocalDateTime(),
+                rs.getObject("book_last_modified_date", Timestamp.class).toLocalDateTime()
+        );
+
+        return Book.create(
+                UUID.fromString(rs.getString("book_id")),
+                new Title(rs.getString("book_title")),
+                new Description(rs.getString("book_description")),
+                new ISBN(rs.getString("book_isbn")),
+                Price.of(rs.getBigDecimal("book_price")),
+                new QuantityOnHand(rs.getInt("book_quantity_on_hand")),
+                Category.valueOf(rs.getString("book_category")),
+                events,
+                rs.getBoolean("book_withdrawn_from_sale"),
+                publisher,
+                authors
+        );
+    }
+
+    private static Author extractDataToAuthor(ResultSet rs) throws SQLException {
+        Address address = new Address(
+                rs.getString("author_state"),
+                rs.getString("author_city"),
+                rs.getString("author_street"),
+                rs.getString("author_home")
+        );
+
+        Events events = new Events(
+                rs.getObject("author_creation_date", Timestamp.class).toLocalDateTime(),
+                rs.getObject("author_last_modified_date", Timestamp.class).toLocalDateTime()
+        );
+
+        return Author.create(
+                UUID.fromString(rs.getString("author_id")),
+                new FirstName(rs.getString("author_first_name")),
+                new LastName(rs.getString("author_last_name")),
+                new Email(rs.getString("author_email")),
+                address,
+                events
+        );
+    }
+
+    private static Publisher extractDataToPublisher(ResultSet rs) throws SQLException {
+        Address address = new Address(
+                rs.getString("publisher_state"),
+                rs.getString("publisher_city"),
+                rs.getString("publisher_street"),
+                rs.getString("publisher_home")
+        );
+
+        Events events = new Events(
+                rs.getObject("publisher_creation_date", Timestamp.class).toLocalDateTime(),
+                rs.getObject("publisher_last_modified_date", Timestamp.class).toLocalDateTime()
+        );
+
+        return Publisher.create(
+                UUID.fromString(rs.getString("publisher_id")),
+                new PublisherName(rs.getString("publisher_name")),
+                address,
+                new Phone(rs.getString("publisher_phone")),
+                new Email(rs.getString("publisher_email")),
+                events
+        );
     }
-}
\ No newline at end of file
+
+    private static final String SQL_FOR_DECREMENT_QUANTITY_ON_HAND = """
+                UPDATE Books SET quantity_on_hand = quantity_on_hand - ?
+                WHERE id = ? AND quantity_on_hand >= ? AND withdrawn_from_sale = false
+                """;
+
+    private static final String SQL_FOR_PENDING_LINES = """
+                SELECT bo.book_id, bo.order_id, bo.count_of_book_copies, bo.unit_price,
+                       (SELECT o.creation_date FROM Orders o WHERE o.id = bo.order_id) AS order_creation_date,
+                       (SELECT b.category FROM Books b WHERE b.id = bo.book_id) AS book_category
+                FROM Book_Order bo
+                WHERE bo.stock_applied = false
+                ORDER BY bo.order_id, bo.book_id
+                LIMIT ?
+                FOR UPDATE
+                """;
+
+    /**Locks the lines, so a concurrent flush of pending lines is either seen as applied or not applied at all.*/
+    private static final String SQL_FOR_LINES_OF_CANCELLED_ORDER = """
+                SELECT bo.book_id, bo.count_of_book_copies, bo.unit_price, bo.stock_applied,
+                       (SELECT o.creation_date FROM Orders o WHERE o.id = bo.order_id) AS order_creation_date,
+                       (SELECT b.category FROM Books b WHERE b.id = bo.book_id) AS book_category
+                FROM Book_Order bo
+                WHERE bo.order_id = ?
+                ORDER BY bo.book_id
+                FOR UPDATE
+                """;
+
+    private static final String SQL_FOR_LINES_OF_HOLD = """
+                SELECT book_id, count_of_book_copies FROM Stock_Holds
+                WHERE hold_id = ? AND customer_id = ? AND expires_at > ?
+                FOR UPDATE
+                """;
+
+    private static final String SQL_FOR_LINES_OF_EXPIRED_HOLDS = """
+                SELECT book_id, count_of_book_copies FROM Stock_Holds
+                WHERE hold_id = ANY(?) AND expires_at <= ?
+                ORDER BY book_id
+                FOR UPDATE
+                """;
+
+    private static final String SQL_FOR_RESERVABLE_QUANTITIES = """
+                SELECT b.id AS book_id, b.quantity_on_hand - COALESCE((
+                    SELECT SUM(bo.count_of_book_copies) FROM Book_Order bo
+                    WHERE bo.book_id = b.id AND bo.stock_applied = false
+                ), 0) AS reservable_quantity
+                FROM Books b
+                WHERE b.id = ANY(?) AND b.withdrawn_from_sale = false
+                """;
+
+    private static final String SQL_FOR_ORDER_HISTORY_OF_CUSTOMER = """
+                SELECT
+                    o.id AS order_id,
+                    o.creation_date AS creation_date,
+                    o.count_of_book AS count_of_book,
+                    o.total_price AS total_price,
+                    o.paid_amount AS paid_amount,
+                    o.change_of_order AS change_of_order,
+                    o.cancelled AS cancelled,
+                    bo.book_id AS book_id,
+                    bo.count_of_book_copies AS count_of_book_copies,
+                    bo.unit_price AS unit_price
+                FROM Orders o
+                    INNER JOIN Book_Order bo ON bo.order_id = o.id
+                WHERE o.customer_id = ?
+                ORDER BY o.creation_date DESC, o.id, bo.book_id
+                """;
+
+    private static final String SQL_FOR_PAGE_OF_ORDER_IDS_BY_BOOK = """
+                SELECT bo.order_id
+                FROM Book_Order bo
+                WHERE bo.book_id = ? %s
+                ORDER BY bo.order_creation_date DESC, bo.order_id DESC
+                LIMIT ?
+                """;
+
+    private static final String ORDERS_OF_BOOK_BEFORE_CURSOR = "AND (bo.order_creation_date, bo.order_id) < (?, ?)";
+
+    private static final String SQL_FOR_ORDER_SUMMARIES = """
+                SELECT
+                    o.id AS order_id,
+                    o.creation_date AS creation_date,
+                    o.count_of_book AS count_of_book,
+                    o.total_price AS total_price,
+                    o.cancelled AS cancelled,
+                    b.isbn AS isbn,
+                    b.title AS title,
+                    bo.count_of_book_copies AS count_of_book_copies
+                FROM (
+                    SELECT id, creation_date, count_of_book, total_price, cancelled
+                    FROM Orders
+                    WHERE customer_id = ? %s
+                    ORDER BY creation_date DESC, id DESC
+                    LIMIT ?
+                ) o
+                    INNER JOIN Book_Order bo ON bo.order_id = o.id
+                    INNER JOIN Books b ON b.id = bo.book_id
+                ORDER BY o.creation_date DESC, o.id DESC, b.title
+                """;
+
+    private static final String SUMMARIES_BEFORE_CURSOR = "AND (creation_date, id) < (?, ?)";
+
+    private static final String SQL_FOR_ORDERS_WITH_CUSTOMERS = """
+                SELECT
+                    o.id AS order_id,
+                    o.count_of_book AS order_count_of_book,
+                    o.total_price AS order_total_price,
+                    o.paid_amount AS order_paid_amount,
+                    o.change_of_order AS order_change_of_order,
+                    o.credit_card_number AS order_credit_card_number,
+                    o.credit_card_expiration AS order_credit_card_expiration,
+                    o.creation_date AS order_creation_date,
+                    o.cancelled AS order_cancelled,
+
+                    c.id AS customer_id,
+                    c.first_name AS customer_first_name,
+                    c.last_name AS customer_last_name,
+                    c.password AS customer_password,
+                    c.email AS customer_email,
+                    c.state AS customer_state,
+                    c.city AS customer_city,
+                    c.street AS customer_street,
+                    c.home AS customer_home,
+                    c.creation_date AS customer_creation_date,
+                    c.last_modified_date AS customer_last_modified_date
+                FROM Orders o
+                    INNER JOIN Customers c ON c.id = o.customer_id
+                WHERE o.id = ANY(?)
+                """;
+
+    private static final String SQL_FOR_LINES_WITH_BOOKS = """
+                SELECT
+                    bo.order_id AS order_id,
+                    bo.count_of_book_copies AS count_of_book_copies,
+
+                    b.id AS book_id,
+                    b.title AS book_title,
+                    b.description AS book_description,
+                    b.isbn AS book_isbn,
+                    b.price AS book_price,
+                    b.quantity_on_hand AS book_quantity_on_hand,
+                    b.category AS book_category,
+                    b.creation_date AS book_creation_date,
+                    b.last_modified_date AS book_last_modified_date,
+                    b.withdrawn_from_sale AS book_withdrawn_from_sale,
+
+                    p.id AS publisher_id,
+                    p.publisher_name AS publisher_name,
+                    p.state AS publisher_state,
+                    p.city AS publisher_city,
+                    p.street AS publisher_street,
+                    p.home AS publisher_home,
+                    p.phone AS publisher_phone,
+                    p.email AS publisher_email,
+                    p.creation_date AS publisher_creation_date,
+                    p.last_modified_date AS publisher_last_modified_date
+                FROM Book_Order bo
+                    INNER JOIN Books b ON b.id = bo.book_id
+                    INNER JOIN Publishers p ON p.id = b.publisher_id
+                WHERE bo.order_id = ANY(?)
+                """;
+
+    private static final String SQL_FOR_AUTHORS_OF_ORDERS = """
+                SELECT
+                    ba.book_id AS book_id,
+
+                    a.id AS author_id,
+                    a.first_name AS author_first_name,
+                    a.last_name AS author_last_name,
+                    a.email AS author_email,
+                    a.state AS author_state,
+                    a.city AS author_city,
+                    a.street AS author_street,
+                    a.home AS author_home,
+                    a.creation_date AS author_creation_date,
+                    a.last_modified_date AS author_last_modified_date
+                FROM Book_Author ba
+                    INNER JOIN Authors a ON a.id = ba.author_id
+                WHERE ba.book_id IN (
+                    SELECT bo.book_id FROM Book_Order bo WHERE bo.order_id = ANY(?)
+                )
+                """;
+}
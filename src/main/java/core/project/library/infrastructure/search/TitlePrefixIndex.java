@@ -0,0 +1,98 @@
+package core.project.library.infrastructure.search;
+
+import core.project.library.domain.entities.Book;
+import core.project.library.infrastructure.repository.BookRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory prefix index of the titles of books on sale, used for type-ahead suggestions.
+ * Entries are kept in a sorted skip list keyed by normalized title and book id,
+ * so a lookup is a range scan over the keys starting with the prefix and books are added or removed one by one.
+ */
+@Slf4j
+@Component
+public class TitlePrefixIndex {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private static final Pattern WHITESPACES = Pattern.compile("\\s+");
+
+    /**Separates the normalized title from the book id in a key, sorts before any character of a title.*/
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    private static final char HIGHEST_CHARACTER = '\uffff';
+
+    private final BookRepository bookRepository;
+
+    private final ConcurrentSkipListMap<String, String> titles = new ConcurrentSkipListMap<>();
+
+    public TitlePrefixIndex(BookRepository bookRepository) {
+        this.bookRepository = bookRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        bookRepository.forEachTitleOnSale((bookId, title) -> titles.put(key(title.title(), bookId), title.title()));
+        log.info("Title prefix index is loaded with {} titles.", titles.size());
+    }
+
+    public void add(Book book) {
+        if (book.isItOnSale()) {
+            titles.put(key(book.getTitle().title(), book.getId()), book.getTitle().title());
+        }
+    }
+
+    public void remove(Book book) {
+        titles.remove(key(book.getTitle().title(), book.getId()));
+    }
+
+    /**
+     * @return up to limit distinct titles starting with the prefix, in alphabetical order of their normalized form.
+     */
+    public List<String> suggest(String prefix, int limit) {
+        String normalizedPrefix = normalize(prefix);
+        if (normalizedPrefix.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        ConcurrentNavigableMap<String, String> matches = titles.subMap(
+                normalizedPrefix, true, normalizedPrefix + HIGHEST_CHARACTER, false
+        );
+
+        Set<String> suggestions = new LinkedHashSet<>();
+        for (String title : matches.values()) {
+            suggestions.add(title);
+            if (suggestions.size() == limit) {
+                break;
+            }
+        }
+        return new ArrayList<>(suggestions);
+    }
+
+    public int size() {
+        return titles.size();
+    }
+
+    static String normalize(String title) {
+        String withoutDiacritics = DIACRITICS
+                .matcher(Normalizer.normalize(title, Normalizer.Form.NFD))
+                .replaceAll("");
+
+        return WHITESPACES.matcher(withoutDiacritics.toLowerCase(Locale.ROOT))
+                .replaceAll(" ")
+                .strip();
+    }
+
+    private static String key(String title, UUID bookId) {
+        return normalize(title) + KEY_SEPARATOR + bookId;
+    }
+}
@@ -0,0 +1,104 @@
+package core.project.library.infrastructure.stock;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Reservable copies of one book split over several atomic counters.
+ * Concurrent reservations start at random stripes, so they rarely compete for the same counter,
+ * and take copies from the next stripes when the first one runs short.
+ */
+public class StripedStock {
+
+    private final AtomicIntegerArray stripes;
+
+    public StripedStock(int quantity, int countOfStripes) {
+        if (quantity < 0) {
+            throw new IllegalArgumentException("Quantity can`t be negative");
+        }
+        if (countOfStripes < 1) {
+            throw new IllegalArgumentException("Count of stripes must be positive");
+        }
+
+        this.stripes = new AtomicIntegerArray(countOfStripes);
+        for (int i = 0; i < countOfStripes; i++) {
+            stripes.set(i, quantity / countOfStripes + (i < quantity % countOfStripes ? 1 : 0));
+        }
+    }
+
+    /**
+     * Takes all requested copies or none of them.
+     * @return true if the copies are reserved.
+     */
+    public boolean tryReserve(int copies) {
+        if (copies <= 0) {
+            throw new IllegalArgumentException("Count of copies must be positive");
+        }
+
+        int countOfStripes = stripes.length();
+        int start = ThreadLocalRandom.current().nextInt(countOfStripes);
+        int[] taken = new int[countOfStripes];
+        int remaining = copies;
+
+        for (int i = 0; i < countOfStripes && remaining > 0; i++) {
+            int stripe = (start + i) % countOfStripes;
+            while (true) {
+                int available = stripes.get(stripe);
+                if (available == 0) {
+                    break;
+                }
+
+                int take = Math.min(available, remaining);
+                if (stripes.compareAndSet(stripe, available, available - take)) {
+                    taken[stripe] = take;
+                    remaining -= take;
+                    break;
+                }
+            }
+        }
+
+        if (remaining > 0) {
+            for (int stripe = 0; stripe < countOfStripes; stripe++) {
+                if (taken[stripe] > 0) {
+                    stripes.addAndGet(stripe, taken[stripe]);
+                }
+            }
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns copies of a reservation that has not been confirmed.
+     */
+    public void release(int copies) {
+        stripes.addAndGet(ThreadLocalRandom.current().nextInt(stripes.length()), copies);
+    }
+
+    /**
+     * Takes as many of the copies as are left, for a stock that shrank outside of reservations.
+     * @return count of the copies taken.
+     */
+    public int takeUpTo(int copies) {
+        int remaining = copies;
+        for (int stripe = 0; stripe < stripes.length() && remaining > 0; stripe++) {
+            while (true) {
+                int available = stripes.get(stripe);
+                int take = Math.min(available, remaining);
+                if (take == 0 || stripes.compareAndSet(stripe, available, available - take)) {
+                    remaining -= take;
+                    break;
+                }
+            }
+        }
+        return copies - remaining;
+    }
+
+    public int available() {
+        int available = 0;
+        for (int i = 0; i < stripes.length(); i++) {
+            available += stripes.get(i);
+        }
+        return available;
+    }
+}
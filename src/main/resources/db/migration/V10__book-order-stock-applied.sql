@@ -0,0 +1,5 @@
+Alter table Book_Order add stock_applied Boolean NOT NULL
+CONSTRAINT default_stock_applied_value Default true;
+
+Create Index
+  book_order_pending_stock_index On Book_Order (order_id) Where stock_applied = false;
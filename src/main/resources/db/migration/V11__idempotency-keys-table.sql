@@ -0,0 +1,11 @@
+Create table Idempotency_Keys (
+  idempotency_key varchar(255) not null,
+  order_id varchar(36) not null,
+  creation_date timestamp not null,
+  Primary key (idempotency_key),
+  constraint idempotency_key_order_fk
+  foreign key (order_id) references Orders (id)
+);
+
+Create Index
+  idempotency_key_creation_date_index On Idempotency_Keys (creation_date);
@@ -0,0 +1,7 @@
+Alter table Book_Order add unit_price decimal(38, 2);
+
+Update Book_Order bo Set unit_price = b.price
+From Books b
+Where b.id = bo.book_id;
+
+Alter table Book_Order alter column unit_price Set NOT NULL;
@@ -0,0 +1,2 @@
+Create Index
+  order_customer_creation_date_index On Orders (customer_id, creation_date, id);
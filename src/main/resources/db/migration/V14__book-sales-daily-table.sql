@@ -0,0 +1,22 @@
+Create table Book_Sales_Daily (
+  sales_date date not null,
+  book_id varchar(36) not null,
+  category varchar(255) not null,
+  units int not null,
+  revenue decimal(38, 2) not null,
+  Primary key (sales_date, book_id),
+  constraint book_sales_daily_book_fk
+  foreign key (book_id) references Books (id)
+);
+
+Create Index
+  book_sales_daily_category_date_index On Book_Sales_Daily (category, sales_date);
+
+Insert into Book_Sales_Daily (sales_date, book_id, category, units, revenue)
+Select CAST(o.creation_date AS DATE), b.id, b.category,
+       SUM(bo.count_of_book_copies), SUM(bo.count_of_book_copies * bo.unit_price)
+From Book_Order bo
+  Inner join Orders o On o.id = bo.order_id
+  Inner join Books b On b.id = bo.book_id
+Where bo.stock_applied = true
+Group by CAST(o.creation_date AS DATE), b.id, b.category;
@@ -0,0 +1,2 @@
+Alter table Orders add cancelled Boolean NOT NULL
+CONSTRAINT default_cancelled_value Default false;
@@ -0,0 +1,15 @@
+Create table Stock_Holds (
+  hold_id varchar(36) not null,
+  book_id varchar(36) not null,
+  customer_id varchar(36) not null,
+  count_of_book_copies int not null,
+  expires_at timestamp not null,
+  Primary key (hold_id, book_id),
+  constraint stock_hold_book_fk
+  foreign key (book_id) references Books (id),
+  constraint stock_hold_customer_fk
+  foreign key (customer_id) references Customers (id)
+);
+
+Create Index
+  stock_hold_expires_at_index On Stock_Holds (expires_at);
@@ -0,0 +1,10 @@
+Delete from Book_Sales_Daily;
+
+Insert into Book_Sales_Daily (sales_date, book_id, category, units, revenue)
+Select CAST(o.creation_date AS DATE), b.id, b.category,
+       SUM(bo.count_of_book_copies), SUM(bo.count_of_book_copies * bo.unit_price)
+From Book_Order bo
+  Inner join Orders o On o.id = bo.order_id
+  Inner join Books b On b.id = bo.book_id
+Where bo.stock_applied = true And o.cancelled = false
+Group by CAST(o.creation_date AS DATE), b.id, b.category;
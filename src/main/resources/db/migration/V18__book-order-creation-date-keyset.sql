@@ -0,0 +1,10 @@
+Alter table Book_Order add order_creation_date timestamp;
+
+Update Book_Order bo Set order_creation_date = o.creation_date
+From Orders o
+Where o.id = bo.order_id;
+
+Alter table Book_Order alter column order_creation_date Set NOT NULL;
+
+Create Index
+  book_order_book_creation_date_index On Book_Order (book_id, order_creation_date, order_id);
@@ -0,0 +1,9 @@
+Alter table Book_Order add order_cancelled Boolean NOT NULL
+CONSTRAINT default_order_cancelled_value Default false;
+
+Update Book_Order bo Set order_cancelled = true
+From Orders o
+Where o.id = bo.order_id And o.cancelled = true;
+
+Create Index
+  book_order_book_cancelled_index On Book_Order (book_id, order_cancelled);
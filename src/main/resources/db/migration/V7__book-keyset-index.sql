@@ -0,0 +1,8 @@
+Create Index
+  book_creation_date_id_index On Books (creation_date, id);
+
+Create Index
+  book_title_creation_date_id_index On Books (title, creation_date, id);
+
+Create Index
+  book_category_creation_date_id_index On Books (category, creation_date, id);
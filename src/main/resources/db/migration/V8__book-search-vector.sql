@@ -0,0 +1,14 @@
+Alter table Books add search_vector tsvector;
+
+Update Books b Set search_vector =
+  setweight(to_tsvector('english', b.title), 'A') ||
+  setweight(to_tsvector('english', b.description), 'B') ||
+  setweight(to_tsvector('english', coalesce((
+      Select string_agg(a.first_name || ' ' || a.last_name, ' ')
+      From Book_Author ba
+      Inner Join Authors a On ba.author_id = a.id
+      Where ba.book_id = b.id
+  ), '')), 'C');
+
+Create Index
+  book_search_vector_index On Books Using GIN (search_vector);
@@ -0,0 +1,49 @@
+Create table Category_Facets (
+  category varchar(255) not null,
+  on_sale_count int not null,
+  Primary key (category)
+);
+
+Insert into Category_Facets (category, on_sale_count)
+Select c.category, (
+    Select COUNT(*) From Books b
+    Where b.category = c.category And b.withdrawn_from_sale = false
+)
+From (Values
+  ('Fantasy'),
+  ('Science_Fiction'),
+  ('Dystopian'),
+  ('Adventure'),
+  ('Romance'),
+  ('Detective'),
+  ('Mystery'),
+  ('Horror'),
+  ('Thriller'),
+  ('Sex'),
+  ('Historical_Fiction'),
+  ('Young_Adult'),
+  ('Children_Adult'),
+  ('Autobiography'),
+  ('Biography'),
+  ('Cooking'),
+  ('Art'),
+  ('Photography'),
+  ('Personal_Development'),
+  ('Motivational'),
+  ('Health'),
+  ('Fitness'),
+  ('Crafts'),
+  ('Hobbies'),
+  ('Home'),
+  ('Families'),
+  ('Relationships'),
+  ('Humor'),
+  ('Business'),
+  ('Law'),
+  ('International_Law'),
+  ('Criminology'),
+  ('Social_Sciences'),
+  ('Politic'),
+  ('Religion'),
+  ('Travel')
+) As c(category);
@@ -47,11 +47,60 @@ create table Books (
                        category varchar(255) not null,
                        creation_date timestamp not null,
                        last_modified_date timestamp not null,
+                       withdrawn_from_sale boolean default false not null,
 --                        unique (isbn),
                        primary key (id),
                        constraint book_publisher_fk foreign key (publisher_id) references Publishers (id)
 );
 create unique index isbn_index on Books(isbn);
+create index book_creation_date_id_index on Books(creation_date, id);
+create index book_title_creation_date_id_index on Books(title, creation_date, id);
+create index book_category_creation_date_id_index on Books(category, creation_date, id);
+
+drop table if exists Category_Facets;
+create table Category_Facets (
+                                 category varchar(255) not null,
+                                 on_sale_count int not null,
+                                 primary key (category)
+);
+insert into Category_Facets (category, on_sale_count) values
+       ('Fantasy', 0),
+       ('Science_Fiction', 0),
+       ('Dystopian', 0),
+       ('Adventure', 0),
+       ('Romance', 0),
+       ('Detective', 0),
+       ('Mystery', 0),
+       ('Horror', 0),
+       ('Thriller', 0),
+       ('Sex', 0),
+       ('Historical_Fiction', 0),
+       ('Young_Adult', 0),
+       ('Children_Adult', 0),
+       ('Autobiography', 0),
+       ('Biography', 0),
+       ('Cooking', 0),
+       ('Art', 0),
+       ('Photography', 0),
+       ('Personal_Development', 0),
+       ('Motivational', 0),
+       ('Health', 0),
+       ('Fitness', 0),
+       ('Crafts', 0),
+       ('Hobbies', 0),
+       ('Home', 0),
+       ('Families', 0),
+       ('Relationships', 0),
+       ('Humor', 0),
+       ('Business', 0),
+       ('Law', 0),
+       ('International_Law', 0),
+       ('Criminology', 0),
+       ('Social_Sciences', 0),
+       ('Politic', 0),
+       ('Religion', 0),
+       ('Travel', 0);
+
 create table Book_Author (
                              book_id varchar(36) not null,
                              author_id varchar(36) not null,
@@ -89,19 +138,66 @@ Create table Orders (
                         credit_card_number char(16) not null,
                         credit_card_expiration char(10) not null,
                         creation_date timestamp not null,
+                        cancelled boolean default false not null,
                         Primary key (id),
                         constraint customer_order_fk
                             foreign key (customer_id) references Customers (id)
 );
+create index order_customer_creation_date_index on Orders(customer_id, creation_date, id);
 
 -- drop table if exists Book_Order;
 Create table Book_Order (
                             book_id varchar(36) not null,
                             order_id varchar(36) not null,
                             count_of_book_copies integer not null,
+                            unit_price decimal(38, 2) not null,
+                            stock_applied boolean default true not null,
+                            order_creation_date timestamp not null,
+                            order_cancelled boolean default false not null,
                             primary key (book_id, order_id),
                             constraint book_order_fk
                                 foreign key (book_id) references Books (id),
                             constraint order_book_fk
                                 foreign key (order_id) references Orders (id)
 );
+create index book_order_book_creation_date_index on Book_Order(book_id, order_creation_date, order_id);
+create index book_order_book_cancelled_index on Book_Order(book_id, order_cancelled);
+
+drop table if exists Book_Sales_Daily;
+create table Book_Sales_Daily (
+                                  sales_date date not null,
+                                  book_id varchar(36) not null,
+                                  category varchar(255) not null,
+                                  units int not null,
+                                  revenue decimal(38, 2) not null,
+                                  primary key (sales_date, book_id),
+                                  constraint book_sales_daily_book_fk
+                                      foreign key (book_id) references Books (id)
+);
+create index book_sales_daily_category_date_index on Book_Sales_Daily(category, sales_date);
+
+drop table if exists Idempotency_Keys;
+create table Idempotency_Keys (
+                                  idempotency_key varchar(255) not null,
+                                  order_id varchar(36) not null,
+                                  creation_date timestamp not null,
+                                  primary key (idempotency_key),
+                                  constraint idempotency_key_order_fk
+                                      foreign key (order_id) references Orders (id)
+);
+create index idempotency_key_creation_date_index on Idempotency_Keys(creation_date);
+
+drop table if exists Stock_Holds;
+create table Stock_Holds (
+                             hold_id varchar(36) not null,
+                             book_id varchar(36) not null,
+                             customer_id varchar(36) not null,
+                             count_of_book_copies int not null,
+                             expires_at timestamp not null,
+                             primary key (hold_id, book_id),
+                             constraint stock_hold_book_fk
+                                 foreign key (book_id) references Books (id),
+                             constraint stock_hold_customer_fk
+                                 foreign key (customer_id) references Customers (id)
+);
+create index stock_hold_expires_at_index on Stock_Holds(expires_at);
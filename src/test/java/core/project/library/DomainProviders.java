@@ -65,7 +65,7 @@ public class DomainProviders {
 
         return () -> Order.create(
                 UUID.randomUUID(),
-                new PaidAmount((double) faker.number().numberBetween(1, 5000)),
+                PaidAmount.of(faker.number().numberBetween(1, 5000)),
                 randomCreditCard(),
                 LocalDateTime.now(),
                 Bootstrap.customerFactory().get(),
@@ -78,7 +78,7 @@ public class DomainProviders {
 
         return () -> Order.create(
                 UUID.randomUUID(),
-                new PaidAmount((double) faker.number().numberBetween(1, 5000)),
+                PaidAmount.of(faker.number().numberBetween(1, 5000)),
                 randomCreditCard(),
                 LocalDateTime.now(),
                 customer,
@@ -0,0 +1,167 @@
+package core.project.library.application.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import core.project.library.DomainProviders;
+import core.project.library.application.service.BookService;
+import core.project.library.domain.entities.Book;
+import core.project.library.infrastructure.pagination.PageCursor;
+import core.project.library.infrastructure.repository.AuthorRepository;
+import core.project.library.infrastructure.repository.BookRepository;
+import core.project.library.infrastructure.repository.PublisherRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(BookController.class)
+class BookControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @MockBean
+    BookService bookService;
+
+    @MockBean
+    BookRepository bookRepository;
+
+    @MockBean
+    AuthorRepository authorRepository;
+
+    @MockBean
+    PublisherRepository publisherRepository;
+
+    @Nested
+    @DisplayName("FindByIds endpoint")
+    class FindByIdsEndpoint {
+
+        private static final String FIND_BY_IDS = "/library/book/findByIds";
+
+        @Test
+        @DisplayName("Found books are returned in request order, duplicates once, unknown ids as missing")
+        @SuppressWarnings("unchecked")
+        void foundAndMissingBooks() throws Exception {
+            Book firstBook = DomainProviders.book().get();
+            Book secondBook = DomainProviders.book().get();
+            UUID missingId = UUID.randomUUID();
+            when(bookService.findAllById(any())).thenReturn(Map.of(
+                    firstBook.getId(), firstBook,
+                    secondBook.getId(), secondBook
+            ));
+
+            List<UUID> requestedIds = List.of(secondBook.getId(), missingId, firstBook.getId(), secondBook.getId());
+            mockMvc.perform(post(FIND_BY_IDS)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(requestedIds)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.books.length()").value(2))
+                    .andExpect(jsonPath("$.books[0].isbn.isbn").value(secondBook.getIsbn().isbn()))
+                    .andExpect(jsonPath("$.books[1].isbn.isbn").value(firstBook.getIsbn().isbn()))
+                    .andExpect(jsonPath("$.missingIds.length()").value(1))
+                    .andExpect(jsonPath("$.missingIds[0]").value(missingId.toString()));
+
+            ArgumentCaptor<Collection<UUID>> lookedUpIds = ArgumentCaptor.forClass(Collection.class);
+            verify(bookService).findAllById(lookedUpIds.capture());
+            assertThat(lookedUpIds.getValue())
+                    .containsExactly(secondBook.getId(), missingId, firstBook.getId());
+        }
+
+        @Test
+        @DisplayName("Duplicates do not count against the limit of 100 ids")
+        void duplicatesDoNotCountAgainstTheLimit() throws Exception {
+            List<UUID> distinctIds = Stream.generate(UUID::randomUUID).limit(100).toList();
+            List<UUID> requestedIds = Stream.concat(distinctIds.stream(), distinctIds.stream()).toList();
+            when(bookService.findAllById(any())).thenReturn(Map.of());
+
+            mockMvc.perform(post(FIND_BY_IDS)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(requestedIds)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.books.length()").value(0))
+                    .andExpect(jsonPath("$.missingIds.length()").value(100));
+        }
+
+        @Test
+        @DisplayName("More than 100 distinct ids are a bad request")
+        void moreThanHundredIdsAreRejected() throws Exception {
+            List<UUID> requestedIds = Stream.generate(UUID::randomUUID).limit(101).toList();
+
+            mockMvc.perform(post(FIND_BY_IDS)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(requestedIds)))
+                    .andExpect(status().isBadRequest());
+
+            verify(bookService, never()).findAllById(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("PageOfBook endpoint with view=summary")
+    class SummaryViewEndpoint {
+
+        private static final String PAGE_OF_BOOK = "/library/book/pageOfBook";
+
+        @Test
+        @DisplayName("Summary holds id, title, ISBN, price and quantity only")
+        void summaryColumns() throws Exception {
+            Book book = DomainProviders.book().get();
+            when(bookService.listOfBookSummaries(1, 10, null, null)).thenReturn(List.of(new BookRepository.BookSummary(
+                    book.getId(), book.getTitle(), book.getIsbn(), book.getPrice(), book.getQuantityOnHand()
+            )));
+
+            mockMvc.perform(get(PAGE_OF_BOOK)
+                            .param("pageNumber", "1")
+                            .param("pageSize", "10")
+                            .param("view", "summary"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(1))
+                    .andExpect(jsonPath("$[0].id").value(book.getId().toString()))
+                    .andExpect(jsonPath("$[0].title.title").value(book.getTitle().title()))
+                    .andExpect(jsonPath("$[0].isbn.isbn").value(book.getIsbn().isbn()))
+                    .andExpect(jsonPath("$[0].price.price").value(book.getPrice().price()))
+                    .andExpect(jsonPath("$[0].quantityOnHand.quantityOnHand")
+                            .value(book.getQuantityOnHand().quantityOnHand()))
+                    .andExpect(jsonPath("$[0].description").doesNotExist())
+                    .andExpect(jsonPath("$[0].publisher").doesNotExist())
+                    .andExpect(jsonPath("$[0].authors").doesNotExist());
+
+            verify(bookService, never()).listOfBooks(anyInt(), anyInt(), any(), any());
+        }
+
+        @Test
+        @DisplayName("Summary view is a bad request in cursor mode")
+        void summaryViewIsRejectedWithCursor() throws Exception {
+            mockMvc.perform(get(PAGE_OF_BOOK)
+                            .param("pageSize", "10")
+                            .param("view", "summary"))
+                    .andExpect(status().isBadRequest());
+
+            verify(bookService, never()).listOfBooks(any(PageCursor.class), any(), any(), any());
+        }
+    }
+}
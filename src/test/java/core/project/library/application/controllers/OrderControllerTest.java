@@ -0,0 +1,221 @@
+package core.project.library.application.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import core.project.library.DomainProviders;
+import core.project.library.application.bootstrap.Bootstrap;
+import core.project.library.application.model.InboundOrderDTO;
+import core.project.library.application.service.BookService;
+import core.project.library.application.service.FlashSaleService;
+import core.project.library.application.service.IdempotencyService;
+import core.project.library.application.service.OrderIntakeService;
+import core.project.library.application.service.StockHoldService;
+import core.project.library.domain.entities.Book;
+import core.project.library.domain.entities.Customer;
+import core.project.library.domain.events.Events;
+import core.project.library.domain.value_objects.PaidAmount;
+import core.project.library.infrastructure.exceptions.DuplicateIdempotencyKeyException;
+import core.project.library.infrastructure.exceptions.OrderIntakeOverloadedException;
+import core.project.library.infrastructure.repository.BookRepository;
+import core.project.library.infrastructure.repository.CustomerRepository;
+import core.project.library.infrastructure.repository.OrderRepository;
+import core.project.library.infrastructure.repository.OrderRepository.OrderToSave;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(OrderController.class)
+class OrderControllerTest {
+
+    private static final String CREATE_ORDER = "/library/order/createOrder";
+
+    private static final String IDEMPOTENCY_KEY_VALUE = "3f1c9a52-order-retry";
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @MockBean
+    BookService bookService;
+
+    @MockBean
+    FlashSaleService flashSaleService;
+
+    @MockBean
+    IdempotencyService idempotencyService;
+
+    @MockBean
+    OrderIntakeService orderIntakeService;
+
+    @MockBean
+    StockHoldService stockHoldService;
+
+    @MockBean
+    BookRepository bookRepository;
+
+    @MockBean
+    OrderRepository orderRepository;
+
+    @MockBean
+    CustomerRepository customerRepository;
+
+    @Test
+    @DisplayName("Creating an order leaves the cached book untouched")
+    void createOrderDoesNotTouchCachedBooks() throws Exception {
+        Book cachedBook = DomainProviders.book().get();
+        Book loadedBook = copyOf(cachedBook);
+        Customer customer = Bootstrap.customerFactory().get();
+
+        when(bookService.findAllById(any())).thenReturn(Map.of(cachedBook.getId(), cachedBook));
+        when(bookRepository.findAllById(anyList())).thenReturn(List.of(loadedBook));
+        when(customerRepository.findById(customer.getId())).thenReturn(Optional.of(customer));
+        when(orderRepository.save(any()))
+                .thenAnswer(invocation -> Optional.of(invocation.<OrderToSave>getArgument(0).order()));
+
+        InboundOrderDTO inboundOrderDTO = new InboundOrderDTO(
+                PaidAmount.of(loadedBook.getPrice().price() + 1),
+                Bootstrap.randomCreditCard(),
+                customer.getId(),
+                List.of(loadedBook.getId())
+        );
+
+        mockMvc.perform(post(CREATE_ORDER)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(inboundOrderDTO)))
+                .andExpect(status().isCreated());
+
+        verify(bookService, never()).findAllById(any());
+        assertThat(cachedBook.getOrders()).isEmpty();
+        assertThat(loadedBook.getOrders()).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Replayed idempotency key returns the original order without creating another one")
+    void replayedIdempotencyKeyReturnsOriginalOrder() throws Exception {
+        UUID createdOrderId = UUID.randomUUID();
+        when(idempotencyService.findOrderId(IDEMPOTENCY_KEY_VALUE)).thenReturn(Optional.of(createdOrderId));
+
+        mockMvc.perform(post(CREATE_ORDER)
+                        .header("Idempotency-Key", IDEMPOTENCY_KEY_VALUE)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(inboundOrderDTO(DomainProviders.book().get(), UUID.randomUUID()))))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Location", "/library/order/findById/" + createdOrderId));
+
+        verify(customerRepository, never()).findById(any());
+        verify(orderRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Replayed idempotency key of an order taken by the intake is answered with 202 and its status")
+    void replayedIdempotencyKeyOfQueuedOrderIsAccepted() throws Exception {
+        UUID acceptedOrderId = UUID.randomUUID();
+        when(idempotencyService.findOrderId(IDEMPOTENCY_KEY_VALUE)).thenReturn(Optional.of(acceptedOrderId));
+        when(orderIntakeService.isEnabled()).thenReturn(true);
+
+        mockMvc.perform(post(CREATE_ORDER)
+                        .header("Idempotency-Key", IDEMPOTENCY_KEY_VALUE)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(inboundOrderDTO(DomainProviders.book().get(), UUID.randomUUID()))))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/library/order/status/" + acceptedOrderId));
+
+        verify(orderIntakeService, never()).submit(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Losing the race for an idempotency key returns the order of the winner and releases reserved copies")
+    void lostIdempotencyKeyRaceReturnsWinningOrder() throws Exception {
+        Book book = DomainProviders.book().get();
+        Customer customer = Bootstrap.customerFactory().get();
+        UUID winningOrderId = UUID.randomUUID();
+        Map<UUID, Integer> reservedCopies = Map.of(book.getId(), 1);
+
+        when(idempotencyService.findOrderId(IDEMPOTENCY_KEY_VALUE))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(winningOrderId));
+        when(bookRepository.findAllById(anyList())).thenReturn(List.of(book));
+        when(customerRepository.findById(customer.getId())).thenReturn(Optional.of(customer));
+        when(flashSaleService.reserve(any())).thenReturn(reservedCopies);
+        when(orderRepository.save(argThat(orderToSave -> IDEMPOTENCY_KEY_VALUE.equals(orderToSave.idempotencyKey()))))
+                .thenThrow(new DuplicateIdempotencyKeyException("Order with this idempotency key already exists."));
+
+        mockMvc.perform(post(CREATE_ORDER)
+                        .header("Idempotency-Key", IDEMPOTENCY_KEY_VALUE)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(inboundOrderDTO(book, customer.getId()))))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Location", "/library/order/findById/" + winningOrderId));
+
+        verify(flashSaleService).release(reservedCopies);
+        verify(idempotencyService, never()).remember(any(), any());
+    }
+
+    @Test
+    @DisplayName("Full order intake answers with 429")
+    void fullOrderIntakeIsTooManyRequests() throws Exception {
+        Book book = DomainProviders.book().get();
+        Customer customer = Bootstrap.customerFactory().get();
+
+        when(bookRepository.findAllById(anyList())).thenReturn(List.of(book));
+        when(customerRepository.findById(customer.getId())).thenReturn(Optional.of(customer));
+        when(flashSaleService.reserve(any())).thenReturn(Map.of());
+        when(orderIntakeService.isEnabled()).thenReturn(true);
+        when(orderIntakeService.submit(any(), any(), any()))
+                .thenThrow(new OrderIntakeOverloadedException("Too many orders are waiting, try again later."));
+
+        mockMvc.perform(post(CREATE_ORDER)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(inboundOrderDTO(book, customer.getId()))))
+                .andExpect(status().isTooManyRequests());
+
+        verify(orderRepository, never()).save(any());
+    }
+
+    private static InboundOrderDTO inboundOrderDTO(Book book, UUID customerId) {
+        return new InboundOrderDTO(
+                PaidAmount.of(book.getPrice().price() + 1),
+                Bootstrap.randomCreditCard(),
+                customerId,
+                List.of(book.getId())
+        );
+    }
+
+    private static Book copyOf(Book book) {
+        return Book.create(
+                book.getId(),
+                book.getTitle(),
+                book.getDescription(),
+                book.getIsbn(),
+                book.getPrice(),
+                book.getQuantityOnHand(),
+                book.getCategory(),
+                new Events(),
+                false,
+                book.getPublisher(),
+                Set.copyOf(book.getAuthors())
+        );
+    }
+}
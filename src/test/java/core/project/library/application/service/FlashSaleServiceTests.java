@@ -0,0 +1,176 @@
+package core.project.library.application.service;
+
+import core.project.library.DomainProviders;
+import core.project.library.application.bootstrap.Bootstrap;
+import core.project.library.domain.entities.Author;
+import core.project.library.domain.entities.Book;
+import core.project.library.domain.entities.Customer;
+import core.project.library.domain.entities.Order;
+import core.project.library.domain.value_objects.PaidAmount;
+import core.project.library.infrastructure.cache.BookCache;
+import core.project.library.infrastructure.exceptions.QuantityOnHandException;
+import core.project.library.infrastructure.repository.AuthorRepository;
+import core.project.library.infrastructure.repository.BookRepository;
+import core.project.library.infrastructure.repository.BookSalesRepository;
+import core.project.library.infrastructure.repository.CustomerRepository;
+import core.project.library.infrastructure.repository.OrderRepository;
+import core.project.library.infrastructure.repository.OrderRepository.OrderToSave;
+import core.project.library.infrastructure.repository.PublisherRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FlashSaleServiceTests {
+
+    private EmbeddedDatabase database;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private OrderRepository orderRepository;
+
+    private BookRepository bookRepository;
+
+    private AuthorRepository authorRepository;
+
+    private PublisherRepository publisherRepository;
+
+    private CustomerRepository customerRepository;
+
+    private Book book;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .generateUniqueName(true)
+                .setType(EmbeddedDatabaseType.H2)
+                .addScript("schema.sql")
+                .build();
+
+        jdbcTemplate = new JdbcTemplate(database);
+        JdbcClient jdbcClient = JdbcClient.create(jdbcTemplate);
+
+        orderRepository = new OrderRepository(
+                jdbcClient, jdbcTemplate, new BookSalesRepository(jdbcTemplate), Duration.ofHours(24)
+        );
+        bookRepository = new BookRepository(jdbcTemplate, 100);
+        authorRepository = new AuthorRepository(jdbcClient);
+        publisherRepository = new PublisherRepository(jdbcTemplate);
+        customerRepository = new CustomerRepository(jdbcTemplate);
+
+        book = savedBook(10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    @DisplayName("Startup applies pending lines of the previous run before the counters are seeded")
+    void startupReconcilesPendingLines() {
+        Customer customer = savedCustomer();
+        assertThat(orderRepository.save(new OrderToSave(order(customer, 3), Set.of(book.getId()), null, null))).isPresent();
+        assertThat(orderRepository.save(new OrderToSave(order(customer, 2), Set.of(book.getId()), null, null))).isPresent();
+        assertThat(quantityOnHand()).isEqualTo(10);
+
+        FlashSaleService flashSaleService = flashSaleService(1);
+        flashSaleService.start();
+
+        assertThat(quantityOnHand()).isEqualTo(5);
+        assertThat(orderRepository.applyPendingStock(500)).isEmpty();
+        assertThat(flashSaleService.reserve(Map.of(book, 5))).containsEntry(book.getId(), 5);
+        assertThatThrownBy(() -> flashSaleService.reserve(Map.of(book, 1)))
+                .isInstanceOf(QuantityOnHandException.class);
+    }
+
+    @Test
+    @DisplayName("Flush takes the copies of reserved orders from stock")
+    void flushAppliesReservedOrders() {
+        FlashSaleService flashSaleService = flashSaleService(500);
+        flashSaleService.start();
+
+        Map<UUID, Integer> reservedCopies = flashSaleService.reserve(Map.of(book, 4));
+        assertThat(orderRepository.save(new OrderToSave(order(savedCustomer(), 4), reservedCopies.keySet(), null, null))).isPresent();
+        assertThat(quantityOnHand()).isEqualTo(10);
+
+        flashSaleService.flush();
+
+        assertThat(quantityOnHand()).isEqualTo(6);
+        assertThat(orderRepository.reservableQuantities(Set.of(book.getId()))).containsEntry(book.getId(), 6);
+    }
+
+    @Test
+    @DisplayName("Counters follow quantity changes and withdrawal of the book")
+    void countersFollowChangesOfTheBook() {
+        FlashSaleService flashSaleService = flashSaleService(500);
+        flashSaleService.start();
+
+        flashSaleService.quantityChanged(book.getId(), 5);
+        flashSaleService.release(flashSaleService.reserve(Map.of(book, 15)));
+        assertThatThrownBy(() -> flashSaleService.reserve(Map.of(book, 16)))
+                .isInstanceOf(QuantityOnHandException.class);
+
+        flashSaleService.quantityChanged(book.getId(), -20);
+        assertThatThrownBy(() -> flashSaleService.reserve(Map.of(book, 1)))
+                .isInstanceOf(QuantityOnHandException.class);
+
+        flashSaleService.withdrawn(book.getId());
+        assertThat(flashSaleService.isActive()).isFalse();
+        assertThat(flashSaleService.reserve(Map.of(book, 1))).isEmpty();
+    }
+
+    private FlashSaleService flashSaleService(int flushBatchSize) {
+        BookCache bookCache = new BookCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(1));
+        return new FlashSaleService(bookCache, orderRepository, Set.of(book.getId()), 4, flushBatchSize);
+    }
+
+    private int quantityOnHand() {
+        return jdbcTemplate.queryForObject(
+                "SELECT quantity_on_hand FROM Books WHERE id = ?", Integer.class, book.getId().toString()
+        );
+    }
+
+    private Book savedBook(int quantityOnHand) {
+        Book savedBook = DomainProviders.book().get();
+        publisherRepository.savePublisher(savedBook.getPublisher());
+        for (Author author : savedBook.getAuthors()) {
+            authorRepository.saveAuthor(author);
+        }
+        bookRepository.completelySaveBook(savedBook);
+        jdbcTemplate.update("UPDATE Books SET quantity_on_hand = ? WHERE id = ?", quantityOnHand, savedBook.getId().toString());
+        return savedBook;
+    }
+
+    private Customer savedCustomer() {
+        Customer customer = Bootstrap.customerFactory().get();
+        customerRepository.saveCustomer(customer);
+        return customer;
+    }
+
+    private Order order(Customer customer, int copies) {
+        return Order.create(
+                UUID.randomUUID(),
+                PaidAmount.of(Math.ceil(book.getPrice().price() * copies) + 1),
+                Bootstrap.randomCreditCard(),
+                LocalDateTime.now(),
+                customer,
+                Map.of(book, copies)
+        );
+    }
+}
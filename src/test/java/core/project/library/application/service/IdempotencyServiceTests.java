@@ -0,0 +1,118 @@
+package core.project.library.application.service;
+
+import core.project.library.DomainProviders;
+import core.project.library.application.bootstrap.Bootstrap;
+import core.project.library.domain.entities.Book;
+import core.project.library.domain.entities.Order;
+import core.project.library.domain.value_objects.PaidAmount;
+import core.project.library.infrastructure.repository.BookSalesRepository;
+import core.project.library.infrastructure.repository.OrderRepository;
+import core.project.library.infrastructure.repository.OrderRepository.OrderToSave;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdempotencyServiceTests {
+
+    private static final Duration TIME_TO_LIVE = Duration.ofHours(24);
+
+    private EmbeddedDatabase database;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private OrderRepository orderRepository;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .generateUniqueName(true)
+                .setType(EmbeddedDatabaseType.H2)
+                .addScript("schema.sql")
+                .build();
+
+        jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        orderRepository = new OrderRepository(
+                JdbcClient.create(jdbcTemplate), jdbcTemplate, new BookSalesRepository(jdbcTemplate), TIME_TO_LIVE
+        );
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    @DisplayName("Key claimed before a restart is replayed from the table and then from memory")
+    void replayedKeyReturnsTheOriginalOrder() {
+        UUID orderId = UUID.randomUUID();
+        claimedKey("replayed-key", orderId, LocalDateTime.now());
+
+        IdempotencyService idempotencyService = new IdempotencyService(orderRepository, 100, TIME_TO_LIVE);
+
+        assertThat(idempotencyService.findOrderId("replayed-key")).contains(orderId);
+        jdbcTemplate.update("DELETE FROM Idempotency_Keys");
+        assertThat(idempotencyService.findOrderId("replayed-key")).contains(orderId);
+        assertThat(idempotencyService.findOrderId("unknown-key")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Expired keys are not replayed and are purged from the table")
+    void expiredKeysArePurged() {
+        UUID liveOrderId = UUID.randomUUID();
+        claimedKey("live-key", liveOrderId, LocalDateTime.now().minusHours(1));
+        claimedKey("expired-key", UUID.randomUUID(), LocalDateTime.now().minus(TIME_TO_LIVE).minusMinutes(1));
+
+        IdempotencyService idempotencyService = new IdempotencyService(orderRepository, 100, TIME_TO_LIVE);
+        assertThat(idempotencyService.findOrderId("expired-key")).isEmpty();
+
+        idempotencyService.purgeExpiredKeys();
+
+        assertThat(jdbcTemplate.queryForList("SELECT idempotency_key FROM Idempotency_Keys", String.class))
+                .containsExactly("live-key");
+        assertThat(idempotencyService.findOrderId("live-key")).contains(liveOrderId);
+    }
+
+    @Test
+    @DisplayName("Expired key that is not purged yet is claimed again by a new order")
+    void expiredKeyIsClaimedAgain() {
+        claimedKey("expired-key", UUID.randomUUID(), LocalDateTime.now().minus(TIME_TO_LIVE).minusMinutes(1));
+        IdempotencyService idempotencyService = new IdempotencyService(orderRepository, 100, TIME_TO_LIVE);
+        assertThat(idempotencyService.findOrderId("expired-key")).isEmpty();
+
+        Book book = DomainProviders.book().get();
+        Order order = Order.create(
+                UUID.randomUUID(),
+                PaidAmount.of(book.getPrice().price() + 1),
+                Bootstrap.randomCreditCard(),
+                LocalDateTime.now(),
+                Bootstrap.customerFactory().get(),
+                Map.of(book, 1)
+        );
+        assertThat(orderRepository.save(new OrderToSave(order, Set.of(book.getId()), "expired-key", null))).isPresent();
+
+        assertThat(jdbcTemplate.queryForList("SELECT order_id FROM Idempotency_Keys WHERE idempotency_key = ?",
+                String.class, "expired-key")).containsExactly(order.getId().toString());
+        assertThat(idempotencyService.findOrderId("expired-key")).contains(order.getId());
+    }
+
+    private void claimedKey(String idempotencyKey, UUID orderId, LocalDateTime creationDate) {
+        jdbcTemplate.update("INSERT INTO Idempotency_Keys (idempotency_key, order_id, creation_date) VALUES (?, ?, ?)",
+                idempotencyKey, orderId.toString(), Timestamp.valueOf(creationDate));
+    }
+}
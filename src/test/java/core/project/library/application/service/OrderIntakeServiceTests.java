@@ -0,0 +1,163 @@
+package core.project.library.application.service;
+
+import core.project.library.DomainProviders;
+import core.project.library.application.bootstrap.Bootstrap;
+import core.project.library.application.model.OrderStatusModel;
+import core.project.library.application.model.OrderStatusModel.Status;
+import core.project.library.domain.entities.Book;
+import core.project.library.domain.entities.Order;
+import core.project.library.domain.value_objects.PaidAmount;
+import core.project.library.infrastructure.exceptions.OrderIntakeOverloadedException;
+import core.project.library.infrastructure.exceptions.QuantityOnHandException;
+import core.project.library.infrastructure.repository.OrderRepository;
+import core.project.library.infrastructure.repository.OrderRepository.OrderToSave;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderIntakeServiceTests {
+
+    private BookService bookService;
+
+    private OrderRepository orderRepository;
+
+    private FlashSaleService flashSaleService;
+
+    private IdempotencyService idempotencyService;
+
+    private OrderIntakeService orderIntakeService;
+
+    @BeforeEach
+    void setUp() {
+        bookService = mock(BookService.class);
+        orderRepository = mock(OrderRepository.class);
+        flashSaleService = mock(FlashSaleService.class);
+        idempotencyService = mock(IdempotencyService.class);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (orderIntakeService != null) {
+            orderIntakeService.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Full queue rejects the order and releases its reserved copies")
+    void fullQueueRejectsOrder() {
+        orderIntakeService = orderIntakeService(1);
+        Order queuedOrder = order();
+        Order overflowingOrder = order();
+        Map<UUID, Integer> reservedCopies = Map.of(UUID.randomUUID(), 2);
+
+        assertThat(orderIntakeService.submit(queuedOrder, Map.of(), null)).isEqualTo(queuedOrder.getId());
+        assertThatThrownBy(() -> orderIntakeService.submit(overflowingOrder, reservedCopies, "overflowing-key"))
+                .isInstanceOf(OrderIntakeOverloadedException.class);
+
+        verify(flashSaleService).release(reservedCopies);
+        assertThat(orderIntakeService.status(overflowingOrder.getId())).isEmpty();
+        assertThat(orderIntakeService.status(queuedOrder.getId()))
+                .map(OrderStatusModel::status).contains(Status.ACCEPTED);
+    }
+
+    @Test
+    @DisplayName("Status of a queued order is accepted, of an unknown order it is read from the Orders table")
+    void statusLookup() {
+        orderIntakeService = orderIntakeService(10);
+        Order queuedOrder = order();
+        UUID savedOrderId = UUID.randomUUID();
+        when(orderRepository.existsById(savedOrderId)).thenReturn(true);
+
+        orderIntakeService.submit(queuedOrder, Map.of(), null);
+
+        assertThat(orderIntakeService.status(queuedOrder.getId()))
+                .map(OrderStatusModel::status).contains(Status.ACCEPTED);
+        assertThat(orderIntakeService.status(savedOrderId))
+                .map(OrderStatusModel::status).contains(Status.CREATED);
+        assertThat(orderIntakeService.status(UUID.randomUUID())).isEmpty();
+        verify(orderRepository, never()).existsById(queuedOrder.getId());
+    }
+
+    @Test
+    @DisplayName("Failed batch is retried order by order, only the rejected order is released")
+    void failedBatchFallsBackToSingleOrders() throws InterruptedException {
+        orderIntakeService = orderIntakeService(10);
+        Order firstOrder = order();
+        Order rejectedOrder = order();
+        Order lastOrder = order();
+        Map<UUID, Integer> reservedCopies = Map.of(UUID.randomUUID(), 1);
+
+        doAnswer(invocation -> {
+            List<OrderToSave> batch = invocation.getArgument(0);
+            if (batch.stream().anyMatch(orderToSave -> orderToSave.order().equals(rejectedOrder))) {
+                throw new QuantityOnHandException("We do not have enough books for this order.");
+            }
+            return null;
+        }).when(orderRepository).saveAll(anyList());
+
+        orderIntakeService.submit(firstOrder, Map.of(), "first-key");
+        orderIntakeService.submit(rejectedOrder, reservedCopies, "rejected-key");
+        orderIntakeService.submit(lastOrder, Map.of(), null);
+        orderIntakeService.start();
+
+        assertThat(awaitStatus(firstOrder)).isEqualTo(Status.CREATED);
+        assertThat(awaitStatus(rejectedOrder)).isEqualTo(Status.REJECTED);
+        assertThat(awaitStatus(lastOrder)).isEqualTo(Status.CREATED);
+        assertThat(orderIntakeService.status(rejectedOrder.getId()))
+                .map(OrderStatusModel::reason).contains("We do not have enough books for this order.");
+
+        verify(orderRepository, times(4)).saveAll(anyList());
+        verify(flashSaleService).release(reservedCopies);
+        verify(idempotencyService).remember("first-key", firstOrder.getId());
+        verify(idempotencyService, never()).remember("rejected-key", rejectedOrder.getId());
+        verify(bookService, times(2)).evictFromCache(any());
+    }
+
+    private OrderIntakeService orderIntakeService(int queueCapacity) {
+        return new OrderIntakeService(bookService, orderRepository, flashSaleService, idempotencyService,
+                true, queueCapacity, 50, Duration.ofMinutes(1));
+    }
+
+    private Status awaitStatus(Order order) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (System.nanoTime() < deadline) {
+            Optional<OrderStatusModel> status = orderIntakeService.status(order.getId());
+            if (status.isPresent() && status.get().status() != Status.ACCEPTED) {
+                return status.get().status();
+            }
+            Thread.sleep(10);
+        }
+        return Status.ACCEPTED;
+    }
+
+    private static Order order() {
+        Book book = DomainProviders.book().get();
+        return Order.create(
+                UUID.randomUUID(),
+                PaidAmount.of(book.getPrice().price() + 1),
+                Bootstrap.randomCreditCard(),
+                LocalDateTime.now(),
+                Bootstrap.customerFactory().get(),
+                Map.of(book, 1)
+        );
+    }
+}
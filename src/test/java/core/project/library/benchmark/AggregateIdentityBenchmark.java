@@ -0,0 +1,109 @@
+package core.project.library.benchmark;
+
+import core.project.library.DomainProviders;
+import core.project.library.application.bootstrap.Bootstrap;
+import core.project.library.domain.entities.Book;
+import core.project.library.domain.entities.Customer;
+import core.project.library.domain.entities.Order;
+import core.project.library.domain.value_objects.PaidAmount;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hash set and map operations over a few thousand orders, books and customers wired to each other,
+ * the way they are used by Customer.orders, Book.orders and the lines of a new order.
+ * Run it on the revision before the id-based equals/hashCode for the former numbers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AggregateIdentityBenchmark {
+
+    private static final int COUNT_OF_BOOKS = 2_000;
+
+    private static final int COUNT_OF_CUSTOMERS = 500;
+
+    private static final int COUNT_OF_ORDERS = 5_000;
+
+    private static final int LINES_PER_ORDER = 3;
+
+    private List<Book> books;
+
+    private List<Customer> customers;
+
+    private List<Order> orders;
+
+    @Setup
+    public void setUp() {
+        books = new ArrayList<>(COUNT_OF_BOOKS);
+        for (int i = 0; i < COUNT_OF_BOOKS; i++) {
+            books.add(DomainProviders.book().get());
+        }
+
+        customers = new ArrayList<>(COUNT_OF_CUSTOMERS);
+        for (int i = 0; i < COUNT_OF_CUSTOMERS; i++) {
+            customers.add(Bootstrap.customerFactory().get());
+        }
+
+        orders = new ArrayList<>(COUNT_OF_ORDERS);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < COUNT_OF_ORDERS; i++) {
+            Map<Book, Integer> lines = new HashMap<>();
+            while (lines.size() < LINES_PER_ORDER) {
+                lines.put(books.get(random.nextInt(COUNT_OF_BOOKS)), random.nextInt(1, 3));
+            }
+
+            orders.add(Order.create(
+                    UUID.randomUUID(),
+                    PaidAmount.of(Order.totalPriceOf(lines).cents() / 100.0 + 1),
+                    Bootstrap.randomCreditCard(),
+                    LocalDateTime.now(),
+                    customers.get(random.nextInt(COUNT_OF_CUSTOMERS)),
+                    lines
+            ));
+        }
+    }
+
+    @Benchmark
+    public void setOfOrders(Blackhole blackhole) {
+        Set<Order> set = new HashSet<>(orders);
+        for (Order order : orders) {
+            blackhole.consume(set.contains(order));
+        }
+    }
+
+    @Benchmark
+    public Map<Book, Integer> mapOfOrderedCopies() {
+        Map<Book, Integer> copiesOfBooks = new HashMap<>();
+        for (Order order : orders) {
+            order.getBooks().forEach((book, copies) -> copiesOfBooks.merge(book, copies, Integer::sum));
+        }
+        return copiesOfBooks;
+    }
+
+    @Benchmark
+    public void setOfCustomers(Blackhole blackhole) {
+        Set<Customer> set = new HashSet<>();
+        for (Order order : orders) {
+            blackhole.consume(set.add(order.getCustomer()));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AggregateIdentityBenchmark.class.getSimpleName())
+                .build()
+        ).run();
+    }
+}
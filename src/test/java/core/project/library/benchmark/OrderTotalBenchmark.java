@@ -0,0 +1,68 @@
+package core.project.library.benchmark;
+
+import core.project.library.DomainProviders;
+import core.project.library.domain.entities.Book;
+import core.project.library.domain.entities.Order;
+import core.project.library.domain.value_objects.TotalPrice;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Total price of an order: the former boxed Double stream against the sum in cents.
+ * Run with {@code -prof gc} to compare the allocation rate as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderTotalBenchmark {
+
+    @Param({"1", "10", "50"})
+    private int countOfLines;
+
+    private Map<Book, Integer> books;
+
+    @Setup
+    public void setUp() {
+        books = new HashMap<>();
+        for (int i = 0; i < countOfLines; i++) {
+            books.put(DomainProviders.book().get(), ThreadLocalRandom.current().nextInt(1, 5));
+        }
+    }
+
+    /**
+     * The implementation before the money value objects were moved to cents.
+     */
+    @Benchmark
+    public Double boxedDoubles() {
+        return books.entrySet()
+                .stream()
+                .map(entry -> {
+                    int bookCopies = entry.getValue();
+                    double priceOfOneCopy = entry.getKey().getPrice().price();
+                    return priceOfOneCopy * bookCopies;
+                })
+                .reduce(0.0, Double::sum);
+    }
+
+    @Benchmark
+    public TotalPrice cents() {
+        return Order.totalPriceOf(books);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(OrderTotalBenchmark.class.getSimpleName())
+                .build()
+        ).run();
+    }
+}
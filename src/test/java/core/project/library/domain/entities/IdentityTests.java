@@ -0,0 +1,53 @@
+package core.project.library.domain.entities;
+
+import core.project.library.DomainProviders;
+import core.project.library.application.bootstrap.Bootstrap;
+import core.project.library.domain.value_objects.PaidAmount;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdentityTests {
+
+    @Test
+    @DisplayName("Book stays in a hash set after its state changes")
+    void bookIdentitySurvivesChanges() {
+        Book book = DomainProviders.book().get();
+        Set<Book> books = new HashSet<>(Set.of(book));
+
+        book.changePrice(book.getPrice().price() + 1);
+        book.changeDescription("Changed description");
+
+        assertThat(books).contains(book);
+    }
+
+    @Test
+    @DisplayName("Orders with the same id are equal, deepEquals compares their state")
+    void ordersAreEqualById() {
+        UUID orderId = UUID.randomUUID();
+        Order order = order(orderId, DomainProviders.book().get());
+        Order restoredOrder = order(orderId, DomainProviders.book().get());
+
+        assertThat(order).isEqualTo(restoredOrder).hasSameHashCodeAs(restoredOrder);
+        assertThat(order.deepEquals(restoredOrder)).isFalse();
+        assertThat(order.deepEquals(order)).isTrue();
+    }
+
+    private static Order order(UUID orderId, Book book) {
+        return Order.create(
+                orderId,
+                PaidAmount.of(book.getPrice().price() + 1),
+                Bootstrap.randomCreditCard(),
+                LocalDateTime.now(),
+                Bootstrap.customerFactory().get(),
+                Map.of(book, 1)
+        );
+    }
+}
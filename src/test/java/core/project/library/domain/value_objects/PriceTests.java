@@ -0,0 +1,53 @@
+package core.project.library.domain.value_objects;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import core.project.library.infrastructure.exceptions.NegativeValueException;
+import core.project.library.infrastructure.exceptions.NullValueException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatException;
+
+class PriceTests {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("Amounts are kept in cents and summed exactly")
+    void sumIsExact() {
+        long cents = Price.of(0.1).times(3) + Price.of(0.2).cents();
+
+        assertThat(cents).isEqualTo(50);
+        assertThat(new TotalPrice(cents).toBigDecimal()).isEqualByComparingTo(new BigDecimal("0.50"));
+    }
+
+    @Test
+    @DisplayName("Fractions of a cent are rounded half up")
+    void roundsHalfUp() {
+        assertThat(Price.of(new BigDecimal("10.005")).cents()).isEqualTo(1001);
+        assertThat(Price.of(10.004).cents()).isEqualTo(1000);
+    }
+
+    @Test
+    @DisplayName("Null and negative amounts are rejected")
+    void rejectsNullAndNegative() {
+        assertThatException()
+                .isThrownBy(() -> Price.of((BigDecimal) null))
+                .isInstanceOf(NullValueException.class);
+        assertThatException()
+                .isThrownBy(() -> PaidAmount.of(-0.01))
+                .isInstanceOf(NegativeValueException.class);
+    }
+
+    @Test
+    @DisplayName("JSON keeps the decimal format")
+    void jsonFormatIsUnchanged() throws JsonProcessingException {
+        assertThat(objectMapper.writeValueAsString(Price.of(12.5))).isEqualTo("{\"price\":12.5}");
+        assertThat(objectMapper.writeValueAsString(ChangeOfOrder.of(3))).isEqualTo("{\"changeOfOrder\":3.0}");
+        assertThat(objectMapper.readValue("{\"paidAmount\":99.99}", PaidAmount.class).cents()).isEqualTo(9999);
+    }
+}
@@ -0,0 +1,105 @@
+package core.project.library.infrastructure.cache;
+
+import core.project.library.DomainProviders;
+import core.project.library.domain.entities.Book;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BookCacheTests {
+
+    private BookCache bookCache;
+
+    @BeforeEach
+    void setUp() {
+        bookCache = new BookCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(10));
+    }
+
+    @Test
+    @DisplayName("Load that overlaps an eviction is returned but not cached")
+    void loadOverlappingEvictionIsNotCached() {
+        Book book = DomainProviders.book().get();
+        AtomicInteger loads = new AtomicInteger();
+
+        Optional<Book> loadedBook = bookCache.findById(book.getId(), () -> {
+            loads.incrementAndGet();
+            bookCache.evict(book);
+            return Optional.of(book);
+        });
+        assertThat(loadedBook).contains(book);
+
+        bookCache.findById(book.getId(), () -> {
+            loads.incrementAndGet();
+            return Optional.of(book);
+        });
+        bookCache.findById(book.getId(), () -> {
+            loads.incrementAndGet();
+            return Optional.of(book);
+        });
+
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Eviction by id also drops the ISBN entry of the book")
+    void evictionByIdInvalidatesIsbn() {
+        Book book = DomainProviders.book().get();
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++) {
+            assertThat(bookCache.findByISBN(book.getIsbn(), () -> {
+                loads.incrementAndGet();
+                return Optional.of(book);
+            })).contains(book);
+        }
+        assertThat(loads.get()).isEqualTo(1);
+
+        bookCache.evict(List.of(book.getId()));
+
+        assertThat(bookCache.findByISBN(book.getIsbn(), () -> {
+            loads.incrementAndGet();
+            return Optional.of(book);
+        })).contains(book);
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Only missing books are loaded, in one call, and are cached afterwards")
+    void findAllByIdLoadsOnlyMisses() {
+        Book cachedBook = DomainProviders.book().get();
+        Book firstMissingBook = DomainProviders.book().get();
+        Book secondMissingBook = DomainProviders.book().get();
+        bookCache.findById(cachedBook.getId(), () -> Optional.of(cachedBook));
+
+        List<List<UUID>> loadedIds = new ArrayList<>();
+        Map<UUID, Book> books = bookCache.findAllById(
+                List.of(cachedBook.getId(), firstMissingBook.getId(), secondMissingBook.getId()),
+                bookIds -> {
+                    loadedIds.add(bookIds);
+                    return List.of(firstMissingBook, secondMissingBook);
+                }
+        );
+
+        assertThat(books).containsOnlyKeys(cachedBook.getId(), firstMissingBook.getId(), secondMissingBook.getId());
+        assertThat(loadedIds).singleElement()
+                .satisfies(bookIds -> assertThat(bookIds)
+                        .containsExactlyInAnyOrder(firstMissingBook.getId(), secondMissingBook.getId()));
+
+        bookCache.findAllById(List.of(firstMissingBook.getId(), secondMissingBook.getId()), bookIds -> {
+            loadedIds.add(bookIds);
+            return List.of();
+        });
+        assertThat(loadedIds).hasSize(1);
+    }
+}
@@ -0,0 +1,35 @@
+package core.project.library.infrastructure.pagination;
+
+import core.project.library.infrastructure.exceptions.InvalidCursorException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullAndEmptySource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatException;
+
+class PageCursorTests {
+
+    @Test
+    @DisplayName("Decode returns the encoded position")
+    void decodeReturnsEncodedPosition() {
+        PageCursor cursor = new PageCursor(LocalDateTime.now(), UUID.randomUUID());
+
+        assertThat(PageCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @ParameterizedTest
+    @NullAndEmptySource
+    @ValueSource(strings = {"not a cursor", "bm90LWEtY3Vyc29y"})
+    @DisplayName("Reject malformed cursor")
+    void rejectMalformedCursor(String token) {
+        assertThatException()
+                .isThrownBy(() -> PageCursor.decode(token))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+}
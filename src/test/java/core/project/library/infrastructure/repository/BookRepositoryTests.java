@@ -0,0 +1,292 @@
+package core.project.library.infrastructure.repository;
+
+import core.project.library.DomainProviders;
+import core.project.library.application.bootstrap.Bootstrap;
+import core.project.library.domain.entities.Author;
+import core.project.library.domain.entities.Book;
+import core.project.library.domain.events.Events;
+import core.project.library.domain.value_objects.Category;
+import core.project.library.infrastructure.pagination.PageCursor;
+import core.project.library.infrastructure.pagination.SearchCursor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class BookRepositoryTests {
+
+    private EmbeddedDatabase database;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private BookRepository bookRepository;
+
+    private AuthorRepository authorRepository;
+
+    private PublisherRepository publisherRepository;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .generateUniqueName(true)
+                .setType(EmbeddedDatabaseType.H2)
+                .addScript("schema.sql")
+                .build();
+
+        jdbcTemplate = new JdbcTemplate(database);
+        JdbcClient jdbcClient = JdbcClient.create(jdbcTemplate);
+
+        bookRepository = new BookRepository(jdbcTemplate, 100);
+        authorRepository = new AuthorRepository(jdbcClient);
+        publisherRepository = new PublisherRepository(jdbcTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    @DisplayName("Search ranks title matches first and continues on the next page after the cursor")
+    void searchPagesThroughMatches() {
+        Book firstTitleMatch = savedBook();
+        Book secondTitleMatch = savedBook();
+        Book descriptionMatch = savedBook();
+        savedBook();
+        jdbcTemplate.update("UPDATE Books SET title = ? WHERE id = ?", "Quasarwind Tales", firstTitleMatch.getId().toString());
+        jdbcTemplate.update("UPDATE Books SET title = ? WHERE id = ?", "The Quasarwind", secondTitleMatch.getId().toString());
+        jdbcTemplate.update("UPDATE Books SET description = ? WHERE id = ?",
+                "A story set long after the quasarwind.", descriptionMatch.getId().toString());
+
+        BookRepository.SearchPage firstPage = bookRepository.search("quasarwind", null, 2);
+
+        assertThat(firstPage.books())
+                .extracting(Book::getId)
+                .containsExactlyInAnyOrder(firstTitleMatch.getId(), secondTitleMatch.getId());
+        assertThat(firstPage.nextCursor()).isNotNull();
+
+        SearchCursor cursor = SearchCursor.decode(firstPage.nextCursor().encode());
+        BookRepository.SearchPage secondPage = bookRepository.search("quasarwind", cursor, 2);
+
+        assertThat(secondPage.books())
+                .extracting(Book::getId)
+                .containsExactly(descriptionMatch.getId());
+        assertThat(secondPage.nextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("Search without matches returns an empty last page")
+    void searchWithoutMatches() {
+        savedBook();
+
+        BookRepository.SearchPage page = bookRepository.search(UUID.randomUUID().toString(), null, 10);
+
+        assertThat(page.books()).isEmpty();
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("Books read by id and by cursor carry the columns of their authors")
+    void booksCarryAuthorColumns() {
+        Book book = savedBook();
+
+        Book foundBook = bookRepository.findById(book.getId()).orElseThrow();
+        List<Book> pageOfBooks = bookRepository.listOfBooks((PageCursor) null, 10, null, null);
+
+        assertThat(pageOfBooks).singleElement().extracting(Book::getId).isEqualTo(book.getId());
+        for (Book readBook : List.of(foundBook, pageOfBooks.getFirst())) {
+            assertThat(readBook.getAuthors())
+                    .extracting(Author::getId, Author::getFirstName, Author::getLastName, Author::getEmail)
+                    .containsExactlyInAnyOrderElementsOf(book.getAuthors().stream()
+                            .map(author -> tuple(author.getId(), author.getFirstName(), author.getLastName(), author.getEmail()))
+                            .toList());
+        }
+    }
+
+    @Test
+    @DisplayName("Page by cursor without matching books is empty")
+    void emptyPageByCursor() {
+        savedBook();
+
+        assertThat(bookRepository.listOfBooks((PageCursor) null, 10, UUID.randomUUID().toString(), null)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Percent sign and underscore of the query are matched literally")
+    void searchMatchesWildcardsLiterally() {
+        Book underscoreTitle = savedBook();
+        Book spaceTitle = savedBook();
+        jdbcTemplate.update("UPDATE Books SET title = ? WHERE id = ?", "Zephyr_Quill", underscoreTitle.getId().toString());
+        jdbcTemplate.update("UPDATE Books SET title = ? WHERE id = ?", "Zephyr Quill", spaceTitle.getId().toString());
+
+        assertThat(bookRepository.search("zephyr_quill", null, 10).books())
+                .extracting(Book::getId)
+                .containsExactly(underscoreTitle.getId());
+        assertThat(bookRepository.search("zephyr%quill", null, 10).books()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Saving a book counts it in the facet of its category")
+    void saveIncrementsCategoryFacet() {
+        Book book = DomainProviders.book().get();
+        int countOnSale = bookRepository.categoryFacets().get(book.getCategory());
+
+        publisherRepository.savePublisher(book.getPublisher());
+        for (Author author : book.getAuthors()) {
+            authorRepository.saveAuthor(author);
+        }
+        bookRepository.completelySaveBook(book);
+
+        assertThat(bookRepository.categoryFacets()).containsEntry(book.getCategory(), countOnSale + 1);
+    }
+
+    @Test
+    @DisplayName("Repeated withdrawal of a book decrements the facet of its category once")
+    void repeatedWithdrawalDecrementsFacetOnce() {
+        Book book = savedBook();
+        int countOnSale = bookRepository.categoryFacets().get(book.getCategory());
+
+        assertThat(bookRepository.withdrawBookFromTheSale(book)).isTrue();
+        assertThat(bookRepository.withdrawBookFromTheSale(book)).isFalse();
+
+        assertThat(bookRepository.categoryFacets()).containsEntry(book.getCategory(), countOnSale - 1);
+    }
+
+    @Test
+    @DisplayName("Rebuild recounts the facets from the books on sale after the counters have drifted")
+    void rebuildRecountsDriftedFacets() {
+        Book withdrawnBook = savedBook();
+        List<Book> booksOnSale = List.of(savedBook(), savedBook());
+        bookRepository.withdrawBookFromTheSale(withdrawnBook);
+        jdbcTemplate.update("UPDATE Category_Facets SET on_sale_count = on_sale_count + 7");
+        jdbcTemplate.update("DELETE FROM Category_Facets WHERE category = ?", withdrawnBook.getCategory().toString());
+
+        bookRepository.rebuildCategoryFacets();
+
+        Map<Category, Integer> expectedFacets = new EnumMap<>(Category.class);
+        for (Category category : Category.values()) {
+            expectedFacets.put(category, 0);
+        }
+        booksOnSale.forEach(book -> expectedFacets.merge(book.getCategory(), 1, Integer::sum));
+        assertThat(bookRepository.categoryFacets()).isEqualTo(expectedFacets);
+    }
+
+    @Test
+    @DisplayName("A page holds exactly page size books with all their authors, in (creation_date, id) order")
+    void pagesOfBooksWithSeveralAuthors() {
+        LocalDateTime creationDate = LocalDateTime.of(2024, 1, 1, 10, 0);
+        Book firstBook = savedBook(3, creationDate);
+        Book secondBook = savedBook(2, creationDate.plusMinutes(1));
+        Book thirdBook = savedBook(4, creationDate.plusMinutes(2));
+
+        List<Book> firstPage = bookRepository.listOfBooks((PageCursor) null, 2, null, null);
+        assertThat(firstPage).extracting(Book::getId).containsExactly(firstBook.getId(), secondBook.getId());
+        assertSameAuthors(firstPage.get(0), firstBook);
+        assertSameAuthors(firstPage.get(1), secondBook);
+
+        PageCursor cursor = new PageCursor(creationDate.plusMinutes(1), secondBook.getId());
+        List<Book> secondPage = bookRepository.listOfBooks(cursor, 2, null, null);
+        assertThat(secondPage).extracting(Book::getId).containsExactly(thirdBook.getId());
+        assertSameAuthors(secondPage.getFirst(), thirdBook);
+
+        List<Book> pageByNumber = bookRepository.listOfBooks(2, 2, null, null);
+        assertThat(pageByNumber).extracting(Book::getId).containsExactly(thirdBook.getId());
+        assertSameAuthors(pageByNumber.getFirst(), thirdBook);
+    }
+
+    @Test
+    @DisplayName("Rows of books with several authors are grouped into one book each")
+    void findAllByIdGroupsAuthorRows() {
+        LocalDateTime creationDate = LocalDateTime.of(2024, 1, 1, 10, 0);
+        List<Book> books = List.of(
+                savedBook(3, creationDate), savedBook(2, creationDate), savedBook(4, creationDate)
+        );
+
+        List<Book> foundBooks = bookRepository.findAllById(books.stream().map(Book::getId).toList());
+
+        assertThat(foundBooks).hasSize(3);
+        Map<UUID, Book> foundBooksById = new HashMap<>();
+        foundBooks.forEach(foundBook -> foundBooksById.put(foundBook.getId(), foundBook));
+        for (Book book : books) {
+            assertSameAuthors(foundBooksById.get(book.getId()), book);
+        }
+    }
+
+    @Test
+    @DisplayName("Summaries of a page carry the columns of their books")
+    void summariesCarryBookColumns() {
+        Book book = savedBook();
+
+        assertThat(bookRepository.listOfBookSummaries(1, 10, null, null)).containsExactly(new BookRepository.BookSummary(
+                book.getId(), book.getTitle(), book.getIsbn(), book.getPrice(), book.getQuantityOnHand()
+        ));
+    }
+
+    private static void assertSameAuthors(Book foundBook, Book book) {
+        assertThat(foundBook.getAuthors())
+                .extracting(Author::getId)
+                .containsExactlyInAnyOrderElementsOf(book.getAuthors().stream().map(Author::getId).toList());
+    }
+
+    private Book savedBook(int countOfAuthors, LocalDateTime creationDate) {
+        Book randomBook = DomainProviders.book().get();
+        Set<Author> authors = new HashSet<>();
+        while (authors.size() < countOfAuthors) {
+            authors.add(Author.create(
+                    UUID.randomUUID(),
+                    Bootstrap.randomFirstName(),
+                    Bootstrap.randomLastName(),
+                    Bootstrap.randomEmail(),
+                    Bootstrap.randomAddress(),
+                    new Events()
+            ));
+        }
+
+        Book book = Book.create(
+                randomBook.getId(),
+                randomBook.getTitle(),
+                randomBook.getDescription(),
+                randomBook.getIsbn(),
+                randomBook.getPrice(),
+                randomBook.getQuantityOnHand(),
+                randomBook.getCategory(),
+                new Events(creationDate, creationDate),
+                false,
+                randomBook.getPublisher(),
+                authors
+        );
+        publisherRepository.savePublisher(book.getPublisher());
+        for (Author author : authors) {
+            authorRepository.saveAuthor(author);
+        }
+        bookRepository.completelySaveBook(book);
+        return book;
+    }
+
+    private Book savedBook() {
+        Book book = DomainProviders.book().get();
+        publisherRepository.savePublisher(book.getPublisher());
+        for (Author author : book.getAuthors()) {
+            authorRepository.saveAuthor(author);
+        }
+        bookRepository.completelySaveBook(book);
+        return book;
+    }
+}
@@ -0,0 +1,162 @@
+package core.project.library.infrastructure.repository;
+
+import core.project.library.LibraryApplication;
+import core.project.library.application.bootstrap.Bootstrap;
+import core.project.library.domain.entities.Book;
+import core.project.library.domain.entities.Customer;
+import core.project.library.domain.entities.Order;
+import core.project.library.domain.value_objects.PaidAmount;
+import core.project.library.infrastructure.exceptions.DuplicateIdempotencyKeyException;
+import core.project.library.infrastructure.exceptions.QuantityOnHandException;
+import core.project.library.infrastructure.repository.OrderRepository.OrderToSave;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs against the application context, so orders are saved through the transactional proxy
+ * and a rejected order rolls back the rows written before the rejection.
+ */
+@SpringBootTest(classes = LibraryApplication.class)
+class OrderPlacementTransactionTests {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Order over stock is rolled back with its lines and the copies taken by earlier lines")
+    void orderOverStockLeavesNothingBehind() {
+        List<UUID> bookIds = jdbcTemplate.queryForList("""
+                SELECT id FROM Books
+                WHERE quantity_on_hand > 0 AND withdrawn_from_sale = false
+                ORDER BY id
+                LIMIT 2
+                """, String.class).stream().map(UUID::fromString).toList();
+        assertThat(bookIds).hasSize(2);
+
+        Map<UUID, Book> books = new HashMap<>();
+        bookRepository.findAllById(bookIds).forEach(book -> books.put(book.getId(), book));
+        Book fittingBook = books.get(bookIds.getFirst());
+        Book overorderedBook = books.get(bookIds.getLast());
+
+        Map<UUID, Integer> quantities = quantitiesOnHand(bookIds);
+        int countOfOrders = countOf("Orders");
+        int countOfLines = countOf("Book_Order");
+
+        Customer customer = Bootstrap.customerFactory().get();
+        customerRepository.saveCustomer(customer);
+        Map<Book, Integer> lines = Map.of(
+                fittingBook, 1,
+                overorderedBook, quantities.get(overorderedBook.getId()) + 1
+        );
+        Order order = order(customer, lines);
+
+        assertThatThrownBy(() -> orderRepository.save(new OrderToSave(order, Set.of(), null, null)))
+                .isInstanceOf(QuantityOnHandException.class);
+
+        assertThat(countOf("Orders")).isEqualTo(countOfOrders);
+        assertThat(countOf("Book_Order")).isEqualTo(countOfLines);
+        assertThat(quantitiesOnHand(bookIds)).isEqualTo(quantities);
+        assertThat(orderRepository.findById(order.getId())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Concurrent orders with the same idempotency key create one order, the other one is rolled back")
+    void concurrentOrdersWithTheSameKeyCreateOneOrder() throws Exception {
+        UUID bookId = UUID.fromString(jdbcTemplate.queryForObject("""
+                SELECT id FROM Books
+                WHERE quantity_on_hand > 1 AND withdrawn_from_sale = false
+                ORDER BY id
+                LIMIT 1
+                """, String.class));
+        Book book = bookRepository.findById(bookId).orElseThrow();
+        int quantity = quantitiesOnHand(List.of(bookId)).get(bookId);
+        String idempotencyKey = UUID.randomUUID().toString();
+
+        Customer customer = Bootstrap.customerFactory().get();
+        customerRepository.saveCustomer(customer);
+        List<Order> orders = List.of(order(customer, Map.of(book, 1)), order(customer, Map.of(book, 1)));
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Optional<Order>>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+            for (Order order : orders) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return orderRepository.save(new OrderToSave(order, Set.of(), idempotencyKey, null));
+                }));
+            }
+            start.countDown();
+        }
+
+        List<Order> savedOrders = new ArrayList<>();
+        int rejectedOrders = 0;
+        for (Future<Optional<Order>> result : results) {
+            try {
+                result.get().ifPresent(savedOrders::add);
+            } catch (ExecutionException e) {
+                assertThat(e.getCause()).isInstanceOf(DuplicateIdempotencyKeyException.class);
+                rejectedOrders++;
+            }
+        }
+
+        assertThat(savedOrders).hasSize(1);
+        assertThat(rejectedOrders).isEqualTo(1);
+        assertThat(orderRepository.findOrderIdByIdempotencyKey(idempotencyKey, LocalDateTime.now().minusMinutes(1)))
+                .contains(savedOrders.getFirst().getId());
+        assertThat(orders).filteredOn(order -> orderRepository.existsById(order.getId())).hasSize(1);
+        assertThat(quantitiesOnHand(List.of(bookId))).containsEntry(bookId, quantity - 1);
+    }
+
+    private static Order order(Customer customer, Map<Book, Integer> lines) {
+        return Order.create(
+                UUID.randomUUID(),
+                PaidAmount.of(Order.totalPriceOf(lines).toBigDecimal().add(BigDecimal.ONE)),
+                Bootstrap.randomCreditCard(),
+                LocalDateTime.now(),
+                customer,
+                lines
+        );
+    }
+
+    private int countOf(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+    }
+
+    private Map<UUID, Integer> quantitiesOnHand(List<UUID> bookIds) {
+        Map<UUID, Integer> quantities = new HashMap<>();
+        bookIds.forEach(bookId -> quantities.put(bookId, jdbcTemplate.queryForObject(
+                "SELECT quantity_on_hand FROM Books WHERE id = ?", Integer.class, bookId.toString()
+        )));
+        return quantities;
+    }
+}
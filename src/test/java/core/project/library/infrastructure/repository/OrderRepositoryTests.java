@@ -0,0 +1,431 @@
+package core.project.library.infrastructure.repository;
+
+import core.project.library.DomainProviders;
+import core.project.library.application.bootstrap.Bootstrap;
+import core.project.library.domain.entities.Author;
+import core.project.library.domain.entities.Book;
+import core.project.library.domain.entities.Customer;
+import core.project.library.domain.entities.Order;
+import core.project.library.domain.value_objects.PaidAmount;
+import core.project.library.infrastructure.exceptions.StockHoldException;
+import core.project.library.infrastructure.pagination.PageCursor;
+import core.project.library.infrastructure.repository.OrderRepository.OrderToSave;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrderRepositoryTests {
+
+    private EmbeddedDatabase database;
+
+    private final AtomicInteger preparedStatements = new AtomicInteger();
+
+    private OrderRepository orderRepository;
+
+    private BookRepository bookRepository;
+
+    private AuthorRepository authorRepository;
+
+    private PublisherRepository publisherRepository;
+
+    private CustomerRepository customerRepository;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private BookSalesRepository bookSalesRepository;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .generateUniqueName(true)
+                .setType(EmbeddedDatabaseType.H2)
+                .addScript("schema.sql")
+                .build();
+
+        jdbcTemplate = new JdbcTemplate(new CountingDataSource());
+        JdbcClient jdbcClient = JdbcClient.create(jdbcTemplate);
+
+        bookSalesRepository = new BookSalesRepository(jdbcTemplate);
+        orderRepository = new OrderRepository(jdbcClient, jdbcTemplate, bookSalesRepository, Duration.ofHours(24));
+        bookRepository = new BookRepository(jdbcTemplate, 100);
+        authorRepository = new AuthorRepository(jdbcClient);
+        publisherRepository = new PublisherRepository(jdbcTemplate);
+        customerRepository = new CustomerRepository(jdbcTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 5, 10})
+    @DisplayName("Order is loaded with the same count of queries regardless of the count of lines")
+    void findByIdUsesConstantCountOfQueries(int countOfLines) {
+        Order order = savedOrder(countOfLines);
+
+        preparedStatements.set(0);
+        Optional<Order> foundOrder = orderRepository.findById(order.getId());
+
+        assertThat(preparedStatements.get()).isEqualTo(3);
+        assertThat(foundOrder).isPresent();
+        assertThat(foundOrder.get().getBooks()).hasSize(countOfLines);
+        assertThat(foundOrder.get().getCountOfBooks()).isEqualTo(order.getCountOfBooks());
+        assertThat(foundOrder.get().getCustomer().getId()).isEqualTo(order.getCustomer().getId());
+        foundOrder.get().getBooks().keySet().forEach(book -> assertThat(book.getAuthors()).isNotEmpty());
+    }
+
+    @Test
+    @DisplayName("Missing order costs a single query")
+    void findByIdOfMissingOrder() {
+        Optional<Order> foundOrder = orderRepository.findById(UUID.randomUUID());
+
+        assertThat(foundOrder).isEmpty();
+        assertThat(preparedStatements.get()).isEqualTo(1);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 4, 8})
+    @DisplayName("Orders of a customer are loaded in one batch sharing the customer instance")
+    void findByCustomerIdUsesConstantCountOfQueries(int countOfOrders) {
+        Customer customer = savedCustomer();
+        for (int i = 0; i < countOfOrders; i++) {
+            savedOrder(3, customer);
+        }
+
+        preparedStatements.set(0);
+        List<Order> orders = orderRepository.findByCustomerId(customer.getId());
+
+        assertThat(preparedStatements.get()).isEqualTo(4);
+        assertThat(orders).hasSize(countOfOrders);
+        assertThat(orders.stream().map(Order::getCustomer).distinct()).hasSize(1);
+        orders.forEach(order -> assertThat(order.getBooks()).hasSize(3));
+    }
+
+    @Test
+    @DisplayName("Stored totals and unit prices do not change with later prices of books")
+    void totalsDoNotDriftWithPrices() {
+        Order order = savedOrder(2);
+        jdbcTemplate.update("UPDATE Books SET price = price + 10");
+
+        Optional<Order> foundOrder = orderRepository.findById(order.getId());
+        assertThat(foundOrder).isPresent();
+        assertThat(foundOrder.get().getTotalPrice().cents()).isEqualTo(order.getTotalPrice().cents());
+
+        preparedStatements.set(0);
+        List<OrderRepository.OrderHistory> history = orderRepository.findHistoryByCustomerId(order.getCustomer().getId());
+
+        assertThat(preparedStatements.get()).isEqualTo(1);
+        assertThat(history).hasSize(1);
+        assertThat(history.getFirst().totalPrice().cents()).isEqualTo(order.getTotalPrice().cents());
+        assertThat(history.getFirst().lines())
+                .hasSize(2)
+                .allSatisfy(line -> assertThat(line.unitPrice()).isEqualTo(
+                        order.getBooks().keySet().stream()
+                                .filter(book -> book.getId().equals(line.bookId()))
+                                .findFirst().orElseThrow()
+                                .getPrice()
+                ));
+    }
+
+    @Test
+    @DisplayName("Saved orders are added to the daily sales rollup and a rebuild gives the same rollup")
+    void savedOrdersAreAddedToSalesRollup() {
+        Order order = savedOrder(3);
+        savedOrder(2, order.getCustomer());
+        LocalDate today = LocalDate.now();
+
+        List<BookSalesRepository.TopSeller> topSellers = bookSalesRepository.topSellers(today, today, null, 20);
+        assertThat(topSellers).hasSize(5);
+        assertThat(topSellers).allSatisfy(topSeller -> assertThat(topSeller.units()).isEqualTo(1));
+
+        Book book = order.getBooks().keySet().iterator().next();
+        assertThat(bookSalesRepository.topSellers(today, today, book.getCategory(), 20))
+                .filteredOn(topSeller -> topSeller.bookId().equals(book.getId()))
+                .singleElement()
+                .extracting(topSeller -> topSeller.revenue().cents())
+                .isEqualTo(book.getPrice().cents());
+        assertThat(bookSalesRepository.topSellers(today.minusDays(8), today.minusDays(1), null, 20)).isEmpty();
+
+        bookSalesRepository.rebuild();
+        assertThat(bookSalesRepository.topSellers(today, today, null, 20))
+                .extracting(BookSalesRepository.TopSeller::bookId)
+                .containsExactlyInAnyOrderElementsOf(topSellers.stream().map(BookSalesRepository.TopSeller::bookId).toList());
+    }
+
+    @Test
+    @DisplayName("Cancellation gives the copies back once and takes the lines out of the sales rollup")
+    void cancellationRestoresStockOnce() {
+        Order order = savedOrder(2);
+        Map<UUID, Integer> quantities = quantitiesOnHand(order);
+
+        Optional<OrderRepository.CancelledOrder> cancelledOrder = orderRepository.cancel(order.getId());
+        assertThat(cancelledOrder).isPresent();
+        assertThat(cancelledOrder.get().copiesOfBooks()).hasSize(2);
+        assertThat(orderRepository.cancel(order.getId())).isEmpty();
+
+        Map<UUID, Integer> restoredQuantities = quantitiesOnHand(order);
+        order.getBooks().forEach((book, copies) ->
+                assertThat(restoredQuantities.get(book.getId())).isEqualTo(quantities.get(book.getId()) + copies));
+
+        LocalDate today = LocalDate.now();
+        assertThat(bookSalesRepository.topSellers(today, today, null, 20))
+                .allSatisfy(topSeller -> assertThat(topSeller.units()).isZero());
+    }
+
+    @Test
+    @DisplayName("Rebuild of the sales rollup leaves out cancelled orders")
+    void rebuildKeepsCancelledOrdersOut() {
+        Order cancelledOrder = savedOrder(2);
+        Order liveOrder = savedOrder(1, cancelledOrder.getCustomer());
+        assertThat(orderRepository.cancel(cancelledOrder.getId())).isPresent();
+
+        LocalDate today = LocalDate.now();
+        Map<UUID, Long> unitsBeforeRebuild = unitsSold(today);
+
+        bookSalesRepository.rebuild();
+
+        assertThat(unitsSold(today))
+                .isEqualTo(unitsBeforeRebuild)
+                .containsOnlyKeys(liveOrder.getBooks().keySet().iterator().next().getId());
+    }
+
+    @Test
+    @DisplayName("Cancelled order is read back flagged and is not counted among the orders of its books")
+    void cancelledOrderIsFlaggedOnRead() {
+        Order cancelledOrder = savedOrder(1);
+        Order liveOrder = savedOrder(1, cancelledOrder.getCustomer());
+        UUID bookId = cancelledOrder.getBooks().keySet().iterator().next().getId();
+        UUID customerId = cancelledOrder.getCustomer().getId();
+        assertThat(orderRepository.countByBookId(bookId, 10)).isEqualTo(1);
+
+        assertThat(orderRepository.cancel(cancelledOrder.getId())).isPresent();
+
+        assertThat(orderRepository.findById(cancelledOrder.getId())).get()
+                .extracting(Order::isCancelled).isEqualTo(true);
+        assertThat(orderRepository.findById(liveOrder.getId())).get()
+                .extracting(Order::isCancelled).isEqualTo(false);
+        assertThat(orderRepository.findByBookId(bookId, null, 10))
+                .singleElement().extracting(Order::isCancelled).isEqualTo(true);
+        assertThat(orderRepository.countByBookId(bookId, 10)).isZero();
+
+        assertThat(orderRepository.findHistoryByCustomerId(customerId))
+                .filteredOn(OrderRepository.OrderHistory::cancelled)
+                .singleElement().extracting(OrderRepository.OrderHistory::orderId).isEqualTo(cancelledOrder.getId());
+        assertThat(orderRepository.listOfOrderSummaries(customerId, null, 10))
+                .filteredOn(OrderRepository.OrderSummary::cancelled)
+                .singleElement().extracting(OrderRepository.OrderSummary::id).isEqualTo(cancelledOrder.getId());
+    }
+
+    @Test
+    @DisplayName("Orders of a book are paged newest first by the creation date and id of the last order")
+    void ordersOfBookArePagedByCreationDate() {
+        Order firstOrder = savedOrder(1);
+        Book book = firstOrder.getBooks().keySet().iterator().next();
+        jdbcTemplate.update("UPDATE Books SET quantity_on_hand = quantity_on_hand + 10");
+
+        List<UUID> newestFirst = new ArrayList<>();
+        for (int hoursAhead = 3; hoursAhead >= 1; hoursAhead--) {
+            Order order = Order.create(
+                    UUID.randomUUID(),
+                    PaidAmount.of(Math.ceil(book.getPrice().price()) + 1),
+                    Bootstrap.randomCreditCard(),
+                    LocalDateTime.now().plusHours(hoursAhead),
+                    firstOrder.getCustomer(),
+                    Map.of(book, 1)
+            );
+            assertThat(orderRepository.save(new OrderToSave(order, Set.of(), null, null))).isPresent();
+            newestFirst.add(order.getId());
+        }
+        newestFirst.add(firstOrder.getId());
+
+        List<Order> firstPage = orderRepository.findByBookId(book.getId(), null, 2);
+        Order lastOfFirstPage = firstPage.getLast();
+        List<Order> secondPage = orderRepository.findByBookId(
+                book.getId(), new PageCursor(lastOfFirstPage.getCreationDate(), lastOfFirstPage.getId()), 2
+        );
+        Order lastOfSecondPage = secondPage.getLast();
+        List<Order> thirdPage = orderRepository.findByBookId(
+                book.getId(), new PageCursor(lastOfSecondPage.getCreationDate(), lastOfSecondPage.getId()), 2
+        );
+
+        assertThat(firstPage).extracting(Order::getId).containsExactlyElementsOf(newestFirst.subList(0, 2));
+        assertThat(secondPage).extracting(Order::getId).containsExactlyElementsOf(newestFirst.subList(2, 4));
+        assertThat(thirdPage).isEmpty();
+    }
+
+    private Map<UUID, Long> unitsSold(LocalDate day) {
+        Map<UUID, Long> units = new HashMap<>();
+        bookSalesRepository.topSellers(day, day, null, 20).stream()
+                .filter(topSeller -> topSeller.units() > 0)
+                .forEach(topSeller -> units.put(topSeller.bookId(), topSeller.units()));
+        return units;
+    }
+
+    @Test
+    @DisplayName("Order consumes its stock hold instead of taking the copies again, expired holds are given back")
+    void orderConsumesStockHold() {
+        Order order = unsavedOrder(2, savedCustomer());
+        jdbcTemplate.update("UPDATE Books SET quantity_on_hand = quantity_on_hand + 10");
+        Map<UUID, Integer> quantities = quantitiesOnHand(order);
+        Map<UUID, Integer> copiesOfBooks = new HashMap<>();
+        order.getBooks().forEach((book, copies) -> copiesOfBooks.put(book.getId(), copies));
+
+        UUID holdId = UUID.randomUUID();
+        orderRepository.holdStock(holdId, order.getCustomer().getId(), copiesOfBooks, LocalDateTime.now().plusMinutes(2));
+        assertThat(orderRepository.save(new OrderToSave(order, Set.of(), null, holdId))).isPresent();
+
+        Map<UUID, Integer> quantitiesAfterOrder = quantitiesOnHand(order);
+        copiesOfBooks.forEach((bookId, copies) ->
+                assertThat(quantitiesAfterOrder.get(bookId)).isEqualTo(quantities.get(bookId) - copies));
+        assertThat(orderRepository.findHoldExpirations()).isEmpty();
+
+        UUID expiredHoldId = UUID.randomUUID();
+        orderRepository.holdStock(expiredHoldId, order.getCustomer().getId(), copiesOfBooks, LocalDateTime.now().minusSeconds(1));
+        assertThatThrownBy(() -> orderRepository.save(new OrderToSave(
+                unsavedOrder(order.getCustomer(), order.getBooks()), Set.of(), null, expiredHoldId
+        )))
+                .isInstanceOf(StockHoldException.class);
+
+        assertThat(orderRepository.releaseExpiredHolds(List.of(expiredHoldId), LocalDateTime.now())).isEqualTo(copiesOfBooks);
+        assertThat(orderRepository.releaseExpiredHolds(List.of(expiredHoldId), LocalDateTime.now())).isEmpty();
+        assertThat(quantitiesOnHand(order)).isEqualTo(quantitiesAfterOrder);
+    }
+
+    @Test
+    @DisplayName("Flush takes the copies of pending lines once and empties an oversold book instead of going negative")
+    void flushAppliesPendingLinesOnceAndClampsOversell() {
+        Order order = unsavedOrder(2, savedCustomer());
+        Set<UUID> bookIds = new HashSet<>();
+        order.getBooks().keySet().forEach(book -> bookIds.add(book.getId()));
+        Map<UUID, Integer> quantities = quantitiesOnHand(order);
+
+        assertThat(orderRepository.save(new OrderToSave(order, bookIds, null, null))).isPresent();
+        assertThat(quantitiesOnHand(order)).isEqualTo(quantities);
+
+        assertThat(orderRepository.applyPendingStock(500)).containsOnlyKeys(bookIds);
+        assertThat(orderRepository.applyPendingStock(500)).isEmpty();
+        Map<UUID, Integer> quantitiesAfterFlush = quantitiesOnHand(order);
+        order.getBooks().forEach((book, copies) ->
+                assertThat(quantitiesAfterFlush.get(book.getId())).isEqualTo(quantities.get(book.getId()) - copies));
+
+        Order oversoldOrder = unsavedOrder(order.getCustomer(), order.getBooks());
+        assertThat(orderRepository.save(new OrderToSave(oversoldOrder, bookIds, null, null))).isPresent();
+        jdbcTemplate.update("UPDATE Books SET quantity_on_hand = 0");
+
+        assertThat(orderRepository.applyPendingStock(500)).containsOnlyKeys(bookIds);
+        assertThat(quantitiesOnHand(order)).allSatisfy((_, quantity) -> assertThat(quantity).isZero());
+        assertThat(orderRepository.applyPendingStock(500)).isEmpty();
+    }
+
+    private Map<UUID, Integer> quantitiesOnHand(Order order) {
+        Map<UUID, Integer> quantities = new HashMap<>();
+        order.getBooks().keySet().forEach(book -> quantities.put(book.getId(), jdbcTemplate.queryForObject(
+                "SELECT quantity_on_hand FROM Books WHERE id = ?", Integer.class, book.getId().toString()
+        )));
+        return quantities;
+    }
+
+    private Order savedOrder(int countOfLines) {
+        return savedOrder(countOfLines, savedCustomer());
+    }
+
+    private Customer savedCustomer() {
+        Customer customer = Bootstrap.customerFactory().get();
+        customerRepository.saveCustomer(customer);
+        return customer;
+    }
+
+    private Order savedOrder(int countOfLines, Customer customer) {
+        Order order = unsavedOrder(countOfLines, customer);
+        assertThat(orderRepository.save(new OrderToSave(order, Set.of(), null, null))).isPresent();
+        return order;
+    }
+
+    private Order unsavedOrder(int countOfLines, Customer customer) {
+        Map<Book, Integer> books = new HashMap<>();
+        for (int i = 0; i < countOfLines; i++) {
+            Book book = DomainProviders.book().get();
+            publisherRepository.savePublisher(book.getPublisher());
+            for (Author author : book.getAuthors()) {
+                authorRepository.saveAuthor(author);
+            }
+            bookRepository.completelySaveBook(book);
+            books.put(book, 1);
+        }
+
+        return unsavedOrder(customer, books);
+    }
+
+    private Order unsavedOrder(Customer customer, Map<Book, Integer> books) {
+        double totalPrice = books.entrySet().stream()
+                .mapToDouble(line -> line.getKey().getPrice().price() * line.getValue())
+                .sum();
+        return Order.create(
+                UUID.randomUUID(),
+                PaidAmount.of(Math.ceil(totalPrice) + 1),
+                Bootstrap.randomCreditCard(),
+                LocalDateTime.now(),
+                customer,
+                books
+        );
+    }
+
+    /**
+     * Counts the statements prepared on every connection handed out to the repositories.
+     */
+    private class CountingDataSource extends DelegatingDataSource {
+
+        CountingDataSource() {
+            super(database);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Connection connection = super.getConnection();
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    (_, method, args) -> {
+                        if (method.getName().equals("prepareStatement")) {
+                            preparedStatements.incrementAndGet();
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    }
+            );
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package core.project.library.infrastructure.search;
+
+import core.project.library.DomainProviders;
+import core.project.library.domain.entities.Book;
+import core.project.library.domain.events.Events;
+import core.project.library.domain.value_objects.Title;
+import core.project.library.infrastructure.repository.BookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class TitlePrefixIndexTests {
+
+    private TitlePrefixIndex titlePrefixIndex;
+
+    @BeforeEach
+    void setUp() {
+        titlePrefixIndex = new TitlePrefixIndex(mock(BookRepository.class));
+    }
+
+    @Test
+    @DisplayName("Suggest titles starting with the prefix regardless of case and accents")
+    void suggestTitlesStartingWithPrefix() {
+        titlePrefixIndex.add(bookWithTitle("Harry Potter"));
+        titlePrefixIndex.add(bookWithTitle("Hárry  and the Sea"));
+        titlePrefixIndex.add(bookWithTitle("Hamlet"));
+
+        assertThat(titlePrefixIndex.suggest("HARRY", 10))
+                .containsExactly("Hárry  and the Sea", "Harry Potter");
+        assertThat(titlePrefixIndex.suggest("ha", 1)).hasSize(1);
+        assertThat(titlePrefixIndex.suggest("dune", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Same title of different books is suggested once")
+    void suggestSameTitleOnce() {
+        titlePrefixIndex.add(bookWithTitle("Dune"));
+        titlePrefixIndex.add(bookWithTitle("Dune"));
+
+        assertThat(titlePrefixIndex.size()).isEqualTo(2);
+        assertThat(titlePrefixIndex.suggest("du", 10)).containsExactly("Dune");
+    }
+
+    @Test
+    @DisplayName("Removed book is no longer suggested")
+    void removedBookIsNotSuggested() {
+        Book book = bookWithTitle("Dune");
+        titlePrefixIndex.add(book);
+        titlePrefixIndex.remove(book);
+
+        assertThat(titlePrefixIndex.suggest("du", 10)).isEmpty();
+    }
+
+    private static Book bookWithTitle(String title) {
+        Book book = DomainProviders.book().get();
+        return Book.create(
+                UUID.randomUUID(),
+                new Title(title),
+                book.getDescription(),
+                book.getIsbn(),
+                book.getPrice(),
+                book.getQuantityOnHand(),
+                book.getCategory(),
+                new Events(),
+                false,
+                book.getPublisher(),
+                book.getAuthors()
+        );
+    }
+}
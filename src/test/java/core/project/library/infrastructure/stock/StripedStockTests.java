@@ -0,0 +1,64 @@
+package core.project.library.infrastructure.stock;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StripedStockTests {
+
+    @Test
+    @DisplayName("Reservation takes copies from several stripes or none of them")
+    void reservationIsAllOrNothing() {
+        StripedStock stock = new StripedStock(10, 4);
+
+        assertThat(stock.tryReserve(7)).isTrue();
+        assertThat(stock.available()).isEqualTo(3);
+
+        assertThat(stock.tryReserve(4)).isFalse();
+        assertThat(stock.available()).isEqualTo(3);
+
+        stock.release(7);
+        assertThat(stock.available()).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("Shrinking stock takes the copies that are left and never goes below zero")
+    void takeUpToStopsAtZero() {
+        StripedStock stock = new StripedStock(10, 4);
+
+        assertThat(stock.takeUpTo(6)).isEqualTo(6);
+        assertThat(stock.available()).isEqualTo(4);
+
+        assertThat(stock.takeUpTo(9)).isEqualTo(4);
+        assertThat(stock.available()).isZero();
+    }
+
+    @Test
+    @DisplayName("Concurrent reservations never take more copies than seeded")
+    void concurrentReservationsDoNotOversell() throws InterruptedException {
+        StripedStock stock = new StripedStock(1_000, 8);
+        AtomicInteger reservedCopies = new AtomicInteger();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 5_000; i++) {
+                int copies = i % 3 + 1;
+                executor.execute(() -> {
+                    if (stock.tryReserve(copies)) {
+                        reservedCopies.addAndGet(copies);
+                    }
+                });
+            }
+            executor.shutdown();
+            assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        }
+
+        assertThat(reservedCopies.get() + stock.available()).isEqualTo(1_000);
+        assertThat(stock.available()).isLessThan(3);
+    }
+}